@@ -8,8 +8,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class ProductsApiTestApplication {
 
     public static void main(String[] args) {
-        Dotenv dotenv = Dotenv.configure().load();
-        dotenv.entries().forEach(entry -> System.setProperty(entry.getKey(), entry.getValue()));
+        // Only the entries of an optional .env file, not the whole process environment Spring already reads.
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)
+                .forEach(entry -> System.setProperty(entry.getKey(), entry.getValue()));
         SpringApplication.run(ProductsApiTestApplication.class, args);
     }
 }
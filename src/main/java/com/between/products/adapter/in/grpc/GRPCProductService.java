@@ -1,47 +1,86 @@
 package com.between.products.adapter.in.grpc;
 
 import com.between.products.adapter.in.grpc.proto.GetProduct;
+import com.between.products.adapter.in.grpc.proto.GetProducts;
 import com.between.products.adapter.in.grpc.proto.ProductResponse;
 import com.between.products.adapter.in.grpc.proto.ProductServiceGrpc;
+import com.between.products.adapter.in.grpc.proto.SimilarProductsBulkResponse;
 import com.between.products.domain.product.Product;
-import com.between.products.port.out.rest.ProductOutPort;
+import com.between.products.port.in.ProductInPort;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
-import reactor.core.publisher.Flux;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @GrpcService
 public class GRPCProductService extends ProductServiceGrpc.ProductServiceImplBase {
-    private final ProductOutPort productOutPort;
+    private final ProductInPort productInPort;
+    private final Duration deadlineMargin;
 
-    public GRPCProductService(ProductOutPort productOutPort) {
-        this.productOutPort = productOutPort;
+    public GRPCProductService(ProductInPort productInPort,
+                              @Value("${product.similar.latency-budget.deadline-margin}") Duration deadlineMargin) {
+        this.productInPort = productInPort;
+        this.deadlineMargin = deadlineMargin;
     }
 
     @Override
     public void getSimilarProducts(GetProduct request, StreamObserver<ProductResponse> responseObserver) {
-        String productId = request.getProductId();
-        Flux<Integer> productSimilarIds = productOutPort.getProductSimilarIds(Integer.valueOf(productId));
-        Flux<com.between.products.adapter.in.grpc.proto.Product> products = productSimilarIds
-                .flatMap(productOutPort::getProductDetail)
-                .map(this::mapToGrpcProduct);
-
-        products.collectList()
-                .subscribe(productList -> {
-                    ProductResponse response = ProductResponse.newBuilder()
-                            .addAllProducts(productList)
-                            .build();
-
-                    responseObserver.onNext(response);
-                    responseObserver.onCompleted();
-                }, responseObserver::onError);
+        ReactiveGrpcBridge.unary(productInPort.getSimilarProducts(request.getProductId(), latencyBudget())
+                .map(similarProducts -> ProductResponse.newBuilder()
+                        .addAllProducts(similarProducts.products().stream().map(this::mapToGrpcProduct).toList())
+                        .setPartial(similarProducts.partial())
+                        .build()), responseObserver);
+    }
+
+    @Override
+    public void streamSimilarProducts(GetProduct request,
+                                      StreamObserver<com.between.products.adapter.in.grpc.proto.Product> responseObserver) {
+        ReactiveGrpcBridge.serverStream(productInPort.getSimilarProducts(request.getProductId())
+                .map(this::mapToGrpcProduct), responseObserver);
+    }
+
+    @Override
+    public void getSimilarProductsBulk(GetProducts request, StreamObserver<SimilarProductsBulkResponse> responseObserver) {
+        int requested = request.getProductIdsCount();
+        if (requested == 0 || requested > ProductInPort.MAX_BULK_PRODUCT_IDS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Between 1 and " + ProductInPort.MAX_BULK_PRODUCT_IDS + " product ids must be requested.")
+                    .asRuntimeException());
+            return;
+        }
+
+        ReactiveGrpcBridge.unary(productInPort.getSimilarProducts(request.getProductIdsList())
+                .map(productsById -> {
+                    SimilarProductsBulkResponse.Builder response = SimilarProductsBulkResponse.newBuilder();
+                    productsById.forEach((productId, products) -> response.putSimilarProducts(productId,
+                            ProductResponse.newBuilder()
+                                    .addAllProducts(products.stream().map(this::mapToGrpcProduct).toList())
+                                    .build()));
+                    return response.build();
+                }), responseObserver);
+    }
+
+    // Whatever is left of the call deadline, minus the margin needed to get the response back in time.
+    private Duration latencyBudget() {
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline == null) {
+            return null;
+        }
+        Duration remaining = Duration.ofNanos(deadline.timeRemaining(TimeUnit.NANOSECONDS)).minus(deadlineMargin);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
     }
 
-    private com.between.products.adapter.in.grpc.proto.Product mapToGrpcProduct(Product domainProduct) {
+    com.between.products.adapter.in.grpc.proto.Product mapToGrpcProduct(Product domainProduct) {
         return com.between.products.adapter.in.grpc.proto.Product.newBuilder()
                 .setId(domainProduct.getId())
                 .setName(domainProduct.getName())
-                .setPrice(domainProduct.getPrice().doubleValue())
-                .setAvailability(domainProduct.getAvailability())
+                .setPrice(domainProduct.priceAsDouble())
+                .setAvailability(Boolean.TRUE.equals(domainProduct.getAvailability()))
                 .build();
     }
 }
@@ -0,0 +1,73 @@
+package com.between.products.adapter.in.grpc;
+
+import com.between.products.domain.product.ProductApiUnavailableException;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connects Reactor pipelines to gRPC server calls. A client cancellation, including an expired
+ * deadline, cancels the pipeline so its upstream work stops, and the call deadline is applied as a
+ * Reactor timeout. Must be called from the service method, where the call's {@link Context} is current.
+ */
+final class ReactiveGrpcBridge {
+
+    private ReactiveGrpcBridge() {
+    }
+
+    static <T> void unary(Mono<T> response, StreamObserver<T> responseObserver) {
+        ServerCallStreamObserver<T> callObserver = (ServerCallStreamObserver<T>) responseObserver;
+        Disposable.Swap subscription = Disposables.swap();
+        callObserver.setOnCancelHandler(subscription::dispose);
+
+        subscription.update(withDeadline(response)
+                .switchIfEmpty(Mono.error(() -> Status.INTERNAL.withDescription("No response").asRuntimeException()))
+                .subscribe(value -> {
+                    callObserver.onNext(value);
+                    callObserver.onCompleted();
+                }, error -> callObserver.onError(toStatusException(error))));
+    }
+
+    static <T> void serverStream(Flux<T> response, StreamObserver<T> responseObserver) {
+        ServerStreamSubscriber<T> subscriber =
+                new ServerStreamSubscriber<>((ServerCallStreamObserver<T>) responseObserver, ReactiveGrpcBridge::toStatusException);
+        withDeadline(response).subscribe(subscriber);
+    }
+
+    private static <T> Mono<T> withDeadline(Mono<T> response) {
+        Deadline deadline = Context.current().getDeadline();
+        return deadline == null ? response : response.timeout(timeLeft(deadline));
+    }
+
+    private static <T> Flux<T> withDeadline(Flux<T> response) {
+        Deadline deadline = Context.current().getDeadline();
+        return deadline == null
+                ? response
+                : response.takeUntilOther(Mono.delay(timeLeft(deadline)).then(Mono.error(TimeoutException::new)));
+    }
+
+    private static Duration timeLeft(Deadline deadline) {
+        return Duration.ofNanos(Math.max(0, deadline.timeRemaining(TimeUnit.NANOSECONDS)));
+    }
+
+    static Throwable toStatusException(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded before the response completed")
+                    .asRuntimeException();
+        }
+        if (error instanceof ProductApiUnavailableException) {
+            return Status.UNAVAILABLE.withDescription(error.getMessage()).withCause(error).asRuntimeException();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,56 @@
+package com.between.products.adapter.in.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Writes a {@code Flux} to a server-streaming call one message at a time: the next element is
+ * only requested while the transport is ready to take it, and a client cancellation cancels the
+ * upstream subscription.
+ */
+class ServerStreamSubscriber<T> extends BaseSubscriber<T> {
+
+    private final ServerCallStreamObserver<T> responseObserver;
+    private final UnaryOperator<Throwable> errorMapper;
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    ServerStreamSubscriber(ServerCallStreamObserver<T> responseObserver, UnaryOperator<Throwable> errorMapper) {
+        this.responseObserver = responseObserver;
+        this.errorMapper = errorMapper;
+        responseObserver.setOnReadyHandler(this::requestIfReady);
+        responseObserver.setOnCancelHandler(this::dispose);
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+        requestIfReady();
+    }
+
+    @Override
+    protected void hookOnNext(T value) {
+        requested.set(false);
+        responseObserver.onNext(value);
+        requestIfReady();
+    }
+
+    @Override
+    protected void hookOnComplete() {
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    protected void hookOnError(Throwable throwable) {
+        responseObserver.onError(errorMapper.apply(throwable));
+    }
+
+    // isReady is re-checked after every write, so an onReady signal between the two cannot be lost.
+    private void requestIfReady() {
+        if (!isDisposed() && responseObserver.isReady() && requested.compareAndSet(false, true)) {
+            request(1);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.between.products.adapter.in.rest;
+
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.domain.product.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.function.Function;
+
+/**
+ * Each product encoded once, such as the JSON of its {@code ProductDTO}, so that responses are put
+ * together from cached bytes instead of serializing the same hot products again. Bytes are only
+ * reused for the product instance they were encoded from: a reloaded detail is a new instance and
+ * replaces them on first use, so no invalidation is needed.
+ */
+public class EncodedProductCache {
+
+    private final Cache<String, Encoded> encoded;
+    private final Function<Product, byte[]> encoder;
+
+    public EncodedProductCache(CaffeineCacheFactory caffeineCacheFactory, String cacheName, Function<Product, byte[]> encoder) {
+        this.encoded = caffeineCacheFactory.build(cacheName);
+        this.encoder = encoder;
+    }
+
+    /** The encoded product; callers must not modify the returned array. */
+    public byte[] get(Product product) {
+        if (product.getId() == null) {
+            return encoder.apply(product);
+        }
+        Encoded cached = encoded.getIfPresent(product.getId());
+        if (cached != null && cached.product() == product) {
+            return cached.bytes();
+        }
+        byte[] bytes = encoder.apply(product);
+        encoded.put(product.getId(), new Encoded(product, bytes));
+        return bytes;
+    }
+
+    private record Encoded(Product product, byte[] bytes) {
+    }
+}
@@ -1,35 +1,171 @@
 package com.between.products.adapter.in.rest;
 
 import com.between.products.adapter.mapper.ProductMapper;
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CaffeineCacheFactory;
 import com.between.products.application.dto.ProductDTO;
+import com.between.products.domain.product.Product;
 import com.between.products.port.in.ProductInPort;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/product")
 @Tag(name = "products", description = "Operations related to products")
 public class ProductController {
 
+    public static final String LATENCY_BUDGET_HEADER = "X-Latency-Budget-Ms";
+    public static final String PARTIAL_RESPONSE_HEADER = "X-Partial-Response";
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] OBJECT_START = {'{'};
+    private static final byte[] OBJECT_END = {'}'};
+    private static final byte[] COMMA = {','};
+    private static final byte[] COLON = {':'};
+
     private final ProductInPort productInPort;
     private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final EncodedProductCache encodedProducts;
 
-    public ProductController(ProductInPort productInPort, ProductMapper productMapper) {
+    public ProductController(ProductInPort productInPort,
+                             ProductMapper productMapper,
+                             ObjectMapper objectMapper,
+                             CaffeineCacheFactory caffeineCacheFactory) {
         this.productInPort = productInPort;
         this.productMapper = productMapper;
+        this.objectMapper = objectMapper;
+        this.encodedProducts = new EncodedProductCache(caffeineCacheFactory, CacheConfig.ENCODED_JSON,
+                product -> toJson(Objects.requireNonNull(productMapper.toProductDTO(product), "productDTO")));
     }
 
+    /**
+     * Answers with the products resolved within the latency budget, which a client can shorten with
+     * {@value #LATENCY_BUDGET_HEADER}. A response cut short by the budget carries
+     * {@value #PARTIAL_RESPONSE_HEADER}{@code : true}. The body is the {@link ProductDTO} array,
+     * joined from each product's cached JSON.
+     */
+    @GetMapping(value = "/{productId}/similar", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimiter(name = "similarProductsLimiter")
+    public Mono<ResponseEntity<Mono<DataBuffer>>> getSimilarProducts(
+            @PathVariable String productId,
+            @RequestHeader(name = LATENCY_BUDGET_HEADER, required = false)
+            @Positive(message = "{product.latencyBudget.Positive}")
+            Long latencyBudgetMillis,
+            ServerHttpResponse response) {
+        Duration latencyBudget = latencyBudgetMillis == null ? null : Duration.ofMillis(latencyBudgetMillis);
+        return this.productInPort.getSimilarProducts(productId, latencyBudget)
+                .map(similarProducts -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(PARTIAL_RESPONSE_HEADER, String.valueOf(similarProducts.partial()))
+                        .body(toJsonArray(similarProducts.products(), response.bufferFactory())));
+    }
 
-    @GetMapping("/{productId}/similar")
+    /**
+     * {@code application/x-ndjson} and {@code text/event-stream} flush each product as soon as it
+     * is available, so they are not bounded by the latency budget.
+     */
+    @GetMapping(value = "/{productId}/similar", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE})
     @RateLimiter(name = "similarProductsLimiter")
-    public Flux<ProductDTO> getSimilarProducts(@PathVariable String productId) {
+    public Flux<ProductDTO> streamSimilarProducts(@PathVariable String productId) {
         return this.productInPort.getSimilarProducts(productId)
                 .switchIfEmpty(Flux.empty())
                 .map(productMapper::toProductDTO);
     }
+
+    /** Answers with a {@code Map<String, List<ProductDTO>>}, joined from each product's cached JSON. */
+    @GetMapping(value = "/similar", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimiter(name = "similarProductsLimiter")
+    public Mono<ResponseEntity<Mono<DataBuffer>>> getSimilarProductsBulk(
+            @RequestParam
+            @Size(min = 1, max = ProductInPort.MAX_BULK_PRODUCT_IDS, message = "{product.ids.Size}")
+            List<String> productIds,
+            ServerHttpResponse response) {
+        return this.productInPort.getSimilarProducts(productIds)
+                .map(productsById -> {
+                    List<byte[]> parts = new ArrayList<>();
+                    parts.add(OBJECT_START);
+                    for (Map.Entry<String, List<Product>> entry : productsById.entrySet()) {
+                        if (parts.size() > 1) {
+                            parts.add(COMMA);
+                        }
+                        parts.add(toJson(entry.getKey()));
+                        parts.add(COLON);
+                        addJsonArray(parts, entry.getValue());
+                    }
+                    parts.add(OBJECT_END);
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(join(parts, response.bufferFactory()));
+                });
+    }
+
+    Mono<DataBuffer> toJsonArray(List<Product> products, DataBufferFactory bufferFactory) {
+        List<byte[]> parts = new ArrayList<>(2 * products.size() + 1);
+        addJsonArray(parts, products);
+        return join(parts, bufferFactory);
+    }
+
+    private void addJsonArray(List<byte[]> parts, List<Product> products) {
+        parts.add(ARRAY_START);
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) {
+                parts.add(COMMA);
+            }
+            parts.add(encodedProducts.get(products.get(i)));
+        }
+        parts.add(ARRAY_END);
+    }
+
+    // Copied into one buffer from the response's allocator (pooled on Netty): for fragments of this
+    // size a copy is cheaper than the per-component bookkeeping of a composite buffer. The buffer is
+    // only allocated once the response is written, so a cancelled request cannot leak it.
+    private static Mono<DataBuffer> join(List<byte[]> parts, DataBufferFactory bufferFactory) {
+        return Mono.fromSupplier(() -> {
+            int length = 0;
+            for (byte[] part : parts) {
+                length += part.length;
+            }
+            DataBuffer buffer = bufferFactory.allocateBuffer(length);
+            for (byte[] part : parts) {
+                buffer.write(part);
+            }
+            return buffer;
+        });
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,246 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caps the upstream calls in flight at a limit that follows the measured round-trip time, in the
+ * style of the gradient algorithm: while recent RTTs stay close to the long-term average the limit
+ * grows by about its square root, and when they rise above it the limit shrinks in proportion.
+ * Calls over the limit wait up to {@code max-wait} in a queue of at most {@code max-queue}, then fail
+ * with a {@link ConcurrencyLimitExceededException}, which is neither retried nor counted by the circuit
+ * breaker, so shed calls are dropped instead of piling onto an upstream that is already queueing.
+ * A permit is held until the response body has been read, so the round-trip time includes it.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Counter rejected;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicReference<Estimate> estimate;
+
+    public AdaptiveConcurrencyLimiter(@Value("${product.api.concurrency-limit.enabled}") boolean enabled,
+                                      @Value("${product.api.concurrency-limit.initial-limit}") int initialLimit,
+                                      @Value("${product.api.concurrency-limit.min-limit}") int minLimit,
+                                      @Value("${product.api.concurrency-limit.max-limit}") int maxLimit,
+                                      @Value("${product.api.concurrency-limit.max-queue}") int maxQueue,
+                                      @Value("${product.api.concurrency-limit.max-wait}") Duration maxWait,
+                                      MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "product.api.concurrency-limit requires 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.estimate = new AtomicReference<>(new Estimate(initialLimit, 0));
+        this.rejected = Counter.builder("product.api.concurrency.rejected")
+                .description("Upstream calls rejected because the concurrency limit queue was full or timed out")
+                .register(meterRegistry);
+        Gauge.builder("product.api.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of upstream calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("product.api.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Upstream calls currently holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("product.api.concurrency.queued", waiting, AtomicInteger::get)
+                .description("Upstream calls waiting for a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        return acquire().flatMap(permit -> next.exchange(request)
+                .map(response -> {
+                    boolean succeeded = !response.statusCode().is5xxServerError();
+                    // WebClient always reads or releases the body, so the permit is given back either way.
+                    return response.mutate()
+                            .body(body -> body.doFinally(signal -> {
+                                if (signal == SignalType.CANCEL) {
+                                    permit.abandon();
+                                } else {
+                                    permit.release(succeeded && signal == SignalType.ON_COMPLETE);
+                                }
+                            }))
+                            .build();
+                })
+                .doOnError(error -> permit.release(false))
+                .doOnCancel(permit::abandon));
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    if (tryAcquire()) {
+                        sink.success(new Permit());
+                        return;
+                    }
+                    if (waiting.incrementAndGet() > maxQueue) {
+                        waiting.decrementAndGet();
+                        sink.error(rejection());
+                        return;
+                    }
+                    // Whoever claims the waiter gives back its queue slot, whether or not drain has already polled it.
+                    Waiter waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                    waiter.timeout = Schedulers.parallel().schedule(() -> {
+                        if (waiter.claim()) {
+                            waiting.decrementAndGet();
+                            waiters.remove(waiter);
+                            sink.error(rejection());
+                        }
+                    }, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                    sink.onCancel(() -> {
+                        if (waiter.claim()) {
+                            waiting.decrementAndGet();
+                            waiter.timeout.dispose();
+                            waiters.remove(waiter);
+                        }
+                    });
+                    drain();
+                })
+                // A permit handed to a caller that has just cancelled is given straight back.
+                .doOnDiscard(Permit.class, Permit::abandon);
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.claim()) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            waiting.decrementAndGet();
+            waiter.timeout.dispose();
+            waiter.sink.success(new Permit());
+        }
+    }
+
+    private ConcurrencyLimitExceededException rejection() {
+        rejected.increment();
+        return new ConcurrencyLimitExceededException(getLimit());
+    }
+
+    // Lock-free: the next estimate is computed from a snapshot and installed only if no other sample got there first.
+    void onSample(long rttNanos, int inFlightAtStart, boolean succeeded) {
+        Estimate current;
+        Estimate next;
+        do {
+            current = estimate.get();
+            next = current.next(rttNanos, inFlightAtStart, succeeded, minLimit, maxLimit);
+        } while (!estimate.compareAndSet(current, next));
+    }
+
+    public int getLimit() {
+        return (int) estimate.get().limit();
+    }
+
+    private record Estimate(double limit, double longRttNanos) {
+
+        Estimate next(long rttNanos, int inFlightAtStart, boolean succeeded, int minLimit, int maxLimit) {
+            if (!succeeded) {
+                return new Estimate(Math.max(minLimit, limit * DROP_BACKOFF), longRttNanos);
+            }
+            double longRtt = longRttNanos == 0 ? rttNanos : longRttNanos + LONG_RTT_ALPHA * (rttNanos - longRttNanos);
+            // The long-term average drifts up under sustained load; pull it back so the limit can recover.
+            if (longRtt / rttNanos > 2) {
+                longRtt *= 0.95;
+            }
+            // An app-limited sample says nothing about what the upstream could take.
+            if (inFlightAtStart < limit / 2) {
+                return new Estimate(limit, longRtt);
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rttNanos));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            double smoothed = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            return new Estimate(Math.max(minLimit, Math.min(maxLimit, smoothed)), longRtt);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Disposable timeout = Disposables.disposed();
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private final class Permit {
+
+        private final long startedAt = System.nanoTime();
+        private final int inFlightAtStart = inFlight.get();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release(boolean succeeded) {
+            if (released.compareAndSet(false, true)) {
+                onSample(System.nanoTime() - startedAt, inFlightAtStart, succeeded);
+                inFlight.decrementAndGet();
+                drain();
+            }
+        }
+
+        void abandon() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                drain();
+            }
+        }
+    }
+}
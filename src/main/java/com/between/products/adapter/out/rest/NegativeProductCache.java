@@ -0,0 +1,82 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Remembers product ids the upstream answered with 404 for a short TTL. A pair of rotating Bloom
+ * filters sits in front of the exact cache, so lookups for ids never reported missing (the common
+ * case) are answered without touching the cache at all.
+ */
+@Component
+public class NegativeProductCache {
+
+    private final Cache<Integer, Boolean> notFoundIds;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final long rotationNanos;
+    private final AtomicReference<Filters> filters;
+    private final Counter hits;
+
+    public NegativeProductCache(CaffeineCacheFactory caffeineCacheFactory,
+                                CacheProperties cacheProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.cache.not-found-filter.false-positive-probability}") double falsePositiveProbability) {
+        CacheProperties.Spec spec = cacheProperties.spec(CacheConfig.PRODUCT_NOT_FOUND);
+        if (spec.maximumSize() == null || spec.expireAfterWrite() == null) {
+            throw new IllegalStateException("The productNotFound cache needs maximum-size and expire-after-write to size its filters");
+        }
+        this.notFoundIds = caffeineCacheFactory.build(CacheConfig.PRODUCT_NOT_FOUND);
+        this.expectedInsertions = spec.maximumSize();
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rotationNanos = spec.expireAfterWrite().toNanos();
+        this.filters = new AtomicReference<>(new Filters(newFilter(), newFilter(), System.nanoTime()));
+        this.hits = Counter.builder("product.api.notfound.hits")
+                .description("Product lookups answered from the negative cache without calling the upstream")
+                .register(meterRegistry);
+    }
+
+    public boolean isNotFound(Integer productId) {
+        Filters current = currentFilters();
+        if (!current.active().mightContain(productId) && !current.previous().mightContain(productId)) {
+            return false;
+        }
+        boolean notFound = notFoundIds.getIfPresent(productId) != null;
+        if (notFound) {
+            hits.increment();
+        }
+        return notFound;
+    }
+
+    public void recordNotFound(Integer productId) {
+        notFoundIds.put(productId, Boolean.TRUE);
+        currentFilters().active().put(productId);
+    }
+
+    // Bloom filters cannot forget ids, so a fresh one is started every TTL and the previous one is
+    // kept for one more period: every id still held by the exact cache is in one of the two.
+    private Filters currentFilters() {
+        Filters current = filters.get();
+        long now = System.nanoTime();
+        if (now - current.rotatedAt() >= rotationNanos) {
+            Filters rotated = new Filters(newFilter(), current.active(), now);
+            return filters.compareAndSet(current, rotated) ? rotated : filters.get();
+        }
+        return current;
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedInsertions, falsePositiveProbability);
+    }
+
+    private record Filters(BloomFilter active, BloomFilter previous, long rotatedAt) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects detail loads from all concurrent pipelines and dispatches them as one upstream batch
+ * once {@code window} has elapsed since the first pending load or {@code maxBatchSize} loads are
+ * pending. If the upstream turns out not to support the batch endpoint, every later load is sent
+ * as a single call instead.
+ */
+class ProductDetailBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductDetailBatcher.class);
+
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Function<List<Integer>, Mono<Map<Integer, Product>>> batchLoader;
+    private final Function<Integer, Mono<Product>> singleLoader;
+    private final Scheduler scheduler;
+    private final DistributionSummary batchSizes;
+
+    private Map<Integer, CompletableFuture<Product>> pending = new LinkedHashMap<>();
+    private volatile boolean batchSupported = true;
+
+    ProductDetailBatcher(Duration window,
+                         int maxBatchSize,
+                         Function<List<Integer>, Mono<Map<Integer, Product>>> batchLoader,
+                         Function<Integer, Mono<Product>> singleLoader,
+                         MeterRegistry meterRegistry) {
+        this(window, maxBatchSize, batchLoader, singleLoader, meterRegistry, Schedulers.parallel());
+    }
+
+    ProductDetailBatcher(Duration window,
+                         int maxBatchSize,
+                         Function<List<Integer>, Mono<Map<Integer, Product>>> batchLoader,
+                         Function<Integer, Mono<Product>> singleLoader,
+                         MeterRegistry meterRegistry,
+                         Scheduler scheduler) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("product.api.batch.max-size must be at least 1");
+        }
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLoader = batchLoader;
+        this.singleLoader = singleLoader;
+        this.scheduler = scheduler;
+        this.batchSizes = DistributionSummary.builder("product.api.batch.size")
+                .description("Product ids per dispatched upstream batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<Product> load(Integer productId) {
+        if (!batchSupported) {
+            return singleLoader.apply(productId).toFuture();
+        }
+
+        Map<Integer, CompletableFuture<Product>> ready = null;
+        CompletableFuture<Product> future;
+        synchronized (this) {
+            // A load whose callers all cancelled is replaced, so it is still dispatched with this batch.
+            future = pending.get(productId);
+            if (future != null && !future.isCancelled()) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(productId, future);
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                Map<Integer, CompletableFuture<Product>> batch = pending;
+                scheduler.schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    // The batch may already have been dispatched for reaching maxBatchSize.
+    private void flush(Map<Integer, CompletableFuture<Product>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            drain();
+        }
+        dispatch(batch);
+    }
+
+    private Map<Integer, CompletableFuture<Product>> drain() {
+        Map<Integer, CompletableFuture<Product>> ready = pending;
+        pending = new LinkedHashMap<>();
+        return ready;
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<Product>> batch) {
+        if (!batchSupported) {
+            batch.forEach(this::dispatchSingle);
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        batchLoader.apply(new ArrayList<>(batch.keySet()))
+                .defaultIfEmpty(Map.of())
+                .subscribe(products -> batch.forEach((productId, future) -> {
+                    Product product = products.get(productId);
+                    if (product != null) {
+                        future.complete(product);
+                    } else {
+                        future.completeExceptionally(new ProductNotFoundException(productId));
+                    }
+                }), error -> {
+                    if (error instanceof UnsupportedBatchException) {
+                        logger.warn("Upstream does not support batched product details, falling back to single calls");
+                        batchSupported = false;
+                        batch.forEach(this::dispatchSingle);
+                    } else {
+                        batch.values().forEach(future -> future.completeExceptionally(error));
+                    }
+                });
+    }
+
+    private void dispatchSingle(Integer productId, CompletableFuture<Product> future) {
+        singleLoader.apply(productId)
+                .subscribe(future::complete, future::completeExceptionally, () -> future.complete(null));
+    }
+
+    boolean isBatchSupported() {
+        return batchSupported;
+    }
+
+    static class UnsupportedBatchException extends RuntimeException {
+        UnsupportedBatchException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,114 +1,262 @@
 package com.between.products.adapter.out.rest;
 
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CaffeineCacheFactory;
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductApiUnavailableException;
+import com.between.products.domain.product.ProductDetailChangedEvent;
 import com.between.products.domain.product.ProductNotFoundException;
 import com.between.products.domain.product.ProductRequestException;
 import com.between.products.port.out.rest.ProductOutPort;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
-import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.handler.timeout.WriteTimeoutHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.tcp.TcpClient;
+import reactor.core.publisher.SignalType;
 
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductOutService implements ProductOutPort {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductOutService.class);
+    private static final int[] NO_SIMILAR_IDS = new int[0];
+    // Thrown by the pool Reactor Netty shades internally, so they are matched by name rather than by type.
+    private static final Set<String> POOL_EXHAUSTED_EXCEPTIONS =
+            Set.of("PoolAcquireTimeoutException", "PoolAcquirePendingLimitException");
     private final WebClient webClient;
     private final CacheManager cacheManager;
+    private final UpstreamCallMetrics similarIdsCalls;
+    private final UpstreamCallMetrics productDetailCalls;
+    private final UpstreamCallMetrics productDetailBatchCalls;
+    private final AsyncLoadingCache<Integer, Product> productDetailCache;
+    private final NegativeProductCache negativeProductCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestHedger requestHedger;
+    private final ProductDetailBatcher productDetailBatcher;
+    private final String batchPath;
+    private final ConcurrentMap<CompletableFuture<?>, Integer> loadWaiters = new ConcurrentHashMap<>();
 
     public ProductOutService(WebClient.Builder webClientBuilder,
                              CacheManager cacheManager,
+                             CaffeineCacheFactory caffeineCacheFactory,
+                             NegativeProductCache negativeProductCache,
+                             ApplicationEventPublisher eventPublisher,
+                             RequestHedger requestHedger,
+                             AdaptiveConcurrencyLimiter concurrencyLimiter,
+                             ClientHttpConnector productApiClientHttpConnector,
+                             MeterRegistry meterRegistry,
                              @Value("${product.api.baseUrl}") String apiBaseUrl,
-                             @Value("${product.api.timeouts.connect}") int connectTimeout,
-                             @Value("${product.api.timeouts.read}") int readTimeout,
-                             @Value("${product.api.timeouts.write}") int writeTimeout,
-                             @Value("${product.api.timeouts.response}") int responseTimeout
+                             @Value("${product.api.batch.enabled}") boolean batchEnabled,
+                             @Value("${product.api.batch.path}") String batchPath,
+                             @Value("${product.api.batch.window}") Duration batchWindow,
+                             @Value("${product.api.batch.max-size}") int batchMaxSize
     ) {
-        TcpClient tcpClient = TcpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
-                .doOnConnected(connection -> {
-                    connection.addHandlerLast(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS));
-                    connection.addHandlerLast(new WriteTimeoutHandler(writeTimeout, TimeUnit.MILLISECONDS));
-                });
-
-        HttpClient httpClient = HttpClient.from(tcpClient)
-                .responseTimeout(Duration.ofMillis(responseTimeout));
-
         this.webClient = webClientBuilder
                 .baseUrl(apiBaseUrl)
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .clientConnector(productApiClientHttpConnector)
+                .filter(concurrencyLimiter)
+                .filter((request, next) -> next.exchange(request).onErrorMap(ProductOutService::isPoolExhausted,
+                        e -> new ProductApiUnavailableException("No product API connection available: " + e.getCause().getMessage(), e)))
                 .build();
 
         this.cacheManager = cacheManager;
+        this.negativeProductCache = negativeProductCache;
+        this.eventPublisher = eventPublisher;
+        this.requestHedger = requestHedger;
+        this.similarIdsCalls = new UpstreamCallMetrics("similarIds", meterRegistry);
+        this.productDetailCalls = new UpstreamCallMetrics("productDetail", meterRegistry);
+        this.productDetailBatchCalls = new UpstreamCallMetrics("productDetailBatch", meterRegistry);
+        this.batchPath = batchPath;
+        this.productDetailBatcher = batchEnabled
+                ? new ProductDetailBatcher(batchWindow, batchMaxSize, this::fetchProductDetails, this::fetchProductDetail, meterRegistry)
+                : null;
+        this.productDetailCache = caffeineCacheFactory.buildAsync(CacheConfig.PRODUCT_DETAIL,
+                (productId, executor) -> productDetailBatcher != null
+                        ? productDetailBatcher.load(productId)
+                        : fetchProductDetail(productId).toFuture(),
+                this::onProductDetailRemoved);
     }
 
+    // The ids are cached as int[] rather than through @Cacheable, which would keep a list of boxed Integers.
     @Override
-    @Cacheable(value = "similarIds", key = "#productId")
     @Retry(name = "productSimilarIdsRetry", fallbackMethod = "getProductSimilarIdsFallback")
     @CircuitBreaker(name = "productSimilarIdsCB", fallbackMethod = "getProductSimilarIdsFallback")
     public Flux<Integer> getProductSimilarIds(Integer productId) {
-        return webClient.get()
-                .uri("/product/{productId}/similarids", productId)
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> handleError(new ProductNotFoundException(productId)))
-                .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> handleError(new ProductRequestException(productId, clientResponse.statusCode())))
-                .bodyToFlux(Integer.class);
+        return knownProduct(productId)
+                .then(Mono.defer(() -> {
+                    Cache cache = cacheManager.getCache(CacheConfig.SIMILAR_IDS);
+                    return cache != null
+                            ? awaitLoad(() -> cache.retrieve(productId, () -> fetchSimilarIds(productId).toFuture()),
+                                    load -> cache.evict(productId), similarIdsCalls)
+                            : fetchSimilarIds(productId);
+                }))
+                .flatMapMany(similarIds -> Flux.range(0, similarIds.length).map(index -> similarIds[index]));
     }
 
     @Override
-    @Cacheable(value = "productDetail", key = "#productId")
     @Retry(name = "productDetailRetry", fallbackMethod = "getProductDetailFallback")
     @CircuitBreaker(name = "productDetailCB", fallbackMethod = "getProductDetailFallback")
     public Mono<Product> getProductDetail(Integer productId) {
-        return webClient.get()
-                .uri("/product/{productId}", productId)
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> handleError(new ProductNotFoundException(productId)))
-                .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> handleError(new ProductRequestException(productId, clientResponse.statusCode())))
-                .bodyToMono(Product.class);
+        return knownProduct(productId)
+                .then(Mono.defer(() -> awaitLoad(() -> productDetailCache.get(productId),
+                        load -> productDetailCache.asMap().remove(productId, load), productDetailCalls)));
+    }
+
+    // A caller can be handed a load just as its last waiter cancels it. The cancelled load is evicted before it is
+    // cancelled, so looking it up again finds a new load.
+    private <T> Mono<T> awaitLoad(Supplier<CompletableFuture<T>> lookup, Consumer<CompletableFuture<T>> evict,
+                                  UpstreamCallMetrics metrics) {
+        return awaitLoad(lookup.get(), evict, metrics)
+                .onErrorResume(CancellationException.class, e -> awaitLoad(lookup.get(), evict, metrics));
+    }
+
+    // A pending load is shared by every caller waiting on it, so it is only cancelled once all of them have cancelled.
+    // The caches hand concurrent callers for one key the same load, so every waiter after the first has joined it.
+    private <T> Mono<T> awaitLoad(CompletableFuture<T> load, Consumer<CompletableFuture<T>> evict, UpstreamCallMetrics metrics) {
+        if (load.isDone()) {
+            return Mono.fromFuture(load, true);
+        }
+        return Mono.fromFuture(load, true)
+                .doOnSubscribe(subscription -> {
+                    if (loadWaiters.merge(load, 1, Integer::sum) > 1) {
+                        metrics.joined();
+                    }
+                })
+                .doFinally(signal -> {
+                    Integer waiters = loadWaiters.computeIfPresent(load, (future, count) -> count == 1 ? null : count - 1);
+                    if (waiters == null && signal == SignalType.CANCEL) {
+                        evict.accept(load);
+                        load.cancel(true);
+                    }
+                });
+    }
+
+    // Jackson decodes the JSON array straight into the int[], without boxing each id.
+    private Mono<int[]> fetchSimilarIds(Integer productId) {
+        return similarIdsCalls.track(webClient.get()
+                        .uri("/product/{productId}/similarids", productId)
+                        .retrieve()
+                        .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> handleError(new ProductNotFoundException(productId)))
+                        .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> handleError(new ProductRequestException(productId, clientResponse.statusCode())))
+                        .bodyToMono(int[].class))
+                .defaultIfEmpty(NO_SIMILAR_IDS)
+                .doOnError(ProductNotFoundException.class, e -> negativeProductCache.recordNotFound(productId));
+    }
+
+    private Mono<Map<Integer, Product>> fetchProductDetails(List<Integer> productIds) {
+        Set<Integer> requestedIds = Set.copyOf(productIds);
+        return productDetailBatchCalls.track(webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path(batchPath)
+                                .queryParam("ids", productIds.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                                .build())
+                        .retrieve()
+                        .onStatus(status -> status.value() == 404 || status.value() == 405 || status.value() == 501,
+                                clientResponse -> Mono.error(new ProductDetailBatcher.UnsupportedBatchException(
+                                        "Batch endpoint " + batchPath + " answered " + clientResponse.statusCode().value())))
+                        .onStatus(HttpStatusCode::isError, clientResponse -> handleError(new ProductRequestException(productIds, clientResponse.statusCode())))
+                        .bodyToFlux(Product.class)
+                        .filter(product -> isRequested(product, requestedIds))
+                        .collectMap(product -> Integer.valueOf(product.getId())))
+                .doOnNext(products -> productIds.stream()
+                        .filter(productId -> !products.containsKey(productId))
+                        .forEach(negativeProductCache::recordNotFound));
+    }
+
+    // A product whose id is missing, malformed or was not asked for is skipped rather than failing the whole batch.
+    private boolean isRequested(Product product, Set<Integer> requestedIds) {
+        boolean requested;
+        try {
+            requested = requestedIds.contains(Integer.valueOf(product.getId()));
+        } catch (NumberFormatException e) {
+            requested = false;
+        }
+        if (!requested) {
+            logger.warn("Skipping product with unexpected id {} in batch response", product.getId());
+        }
+        return requested;
+    }
+
+    private Mono<Product> fetchProductDetail(Integer productId) {
+        return requestHedger.execute(() -> productDetailCalls.track(webClient.get()
+                        .uri("/product/{productId}", productId)
+                        .retrieve()
+                        .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> handleError(new ProductNotFoundException(productId)))
+                        .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> handleError(new ProductRequestException(productId, clientResponse.statusCode())))
+                        .bodyToMono(Product.class)))
+                .doOnError(ProductNotFoundException.class, e -> negativeProductCache.recordNotFound(productId));
+    }
+
+    // Runs after the removal, so on a refresh the cache already holds the reloaded value.
+    private void onProductDetailRemoved(Integer productId, Product removed, RemovalCause cause) {
+        if (cause == RemovalCause.REPLACED
+                && Objects.equals(productDetailCache.synchronous().policy().getIfPresentQuietly(productId), removed)) {
+            return;
+        }
+        eventPublisher.publishEvent(new ProductDetailChangedEvent(productId));
     }
 
+    // Running out of connections is answered with 503 / UNAVAILABLE rather than with an empty result.
     public Flux<Integer> getProductSimilarIdsFallback(Integer productId, Throwable throwable) {
+        if (throwable instanceof ProductApiUnavailableException) {
+            return Flux.error(throwable);
+        }
         logger.warn("Fallback method called for getProductSimilarIds. Product ID: {}", productId, throwable);
         if (throwable instanceof WebClientRequestException) {
-            Cache cache = this.cacheManager.getCache("similarIds");
+            Cache cache = this.cacheManager.getCache(CacheConfig.SIMILAR_IDS);
             if (cache != null) {
-                cache.put(productId, Flux.empty());
+                cache.put(productId, NO_SIMILAR_IDS);
             }
         }
         return Flux.empty();
     }
 
     public Mono<Product> getProductDetailFallback(Integer productId, Throwable throwable) {
-        logger.warn("Fallback method called for getProductDetail. Product ID: {}", productId);
-        if (throwable instanceof WebClientRequestException) {
-            Cache cache = this.cacheManager.getCache("productDetail");
-            if (cache != null) {
-                cache.put(productId, Flux.empty());
-            }
+        if (throwable instanceof ProductApiUnavailableException) {
+            return Mono.error(throwable);
         }
+        logger.warn("Fallback method called for getProductDetail. Product ID: {}", productId);
         return Mono.empty();
     }
 
+    private Mono<Void> knownProduct(Integer productId) {
+        return Mono.defer(() -> negativeProductCache.isNotFound(productId)
+                ? Mono.error(new ProductNotFoundException(productId))
+                : Mono.empty());
+    }
+
+    // The pool rejects with a PoolAcquireTimeoutException or PoolAcquirePendingLimitException, wrapped by WebClient.
+    private static boolean isPoolExhausted(Throwable throwable) {
+        return throwable instanceof WebClientRequestException
+                && throwable.getCause() != null
+                && POOL_EXHAUSTED_EXCEPTIONS.contains(throwable.getCause().getClass().getSimpleName());
+    }
+
     private <T> Mono<T> handleError(Exception exception) {
         logger.error(exception.getMessage());
         return Mono.error(exception);
@@ -0,0 +1,187 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.ProductRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a slow upstream call and keeps whichever answers first. A call is hedged
+ * once it has been outstanding longer than the configured percentile of recent call latencies,
+ * bounded by {@code min-delay} and {@code max-delay}. Every primary call earns {@code budget-percent}
+ * of a hedge, so hedges can never add more than that share of upstream load. Once the hedge is sent,
+ * a copy that fails with an error the retry would also retry leaves the other copy to answer.
+ */
+@Component
+public class RequestHedger {
+
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final long MILLI_TOKENS_PER_HEDGE = 1000;
+    private static final long MAX_MILLI_TOKENS = 10 * MILLI_TOKENS_PER_HEDGE;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final long milliTokensPerCall;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    // Written without locks; intervals are drained into the window by whichever call triggers a recompute.
+    private final Recorder latencies;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private Histogram interval;
+    private Histogram previousWindow;
+    private Histogram currentWindow;
+    private volatile Duration hedgeDelay;
+    private final AtomicLong budget = new AtomicLong();
+
+    public RequestHedger(@Value("${product.api.hedging.enabled}") boolean enabled,
+                         @Value("${product.api.hedging.percentile}") double percentile,
+                         @Value("${product.api.hedging.min-delay}") Duration minDelay,
+                         @Value("${product.api.hedging.max-delay}") Duration maxDelay,
+                         @Value("${product.api.hedging.budget-percent}") double budgetPercent,
+                         MeterRegistry meterRegistry) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("product.api.hedging.percentile must be between 0 and 1");
+        }
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("product.api.hedging.budget-percent must be between 0 and 100");
+        }
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.latencies = new Recorder(Math.max(2, maxDelay.toNanos()), 2);
+        this.previousWindow = new Histogram(Math.max(2, maxDelay.toNanos()), 2);
+        this.currentWindow = new Histogram(Math.max(2, maxDelay.toNanos()), 2);
+        this.milliTokensPerCall = Math.round(budgetPercent * MILLI_TOKENS_PER_HEDGE / 100);
+        this.hedgesSent = Counter.builder("product.api.hedge.sent")
+                .description("Hedge requests sent because the first request was slow")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("product.api.hedge.won")
+                .description("Hedge requests that answered before the first request")
+                .register(meterRegistry);
+        Gauge.builder("product.api.hedge.delay", this, hedger -> hedger.hedgeDelay == null ? Double.NaN : hedger.hedgeDelay.toMillis())
+                .description("Current delay before a hedge request is sent")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            budget.accumulateAndGet(milliTokensPerCall, (current, earned) -> Math.min(MAX_MILLI_TOKENS, current + earned));
+            Mono<T> primary = timed(call.get());
+            Duration delay = hedgeDelay;
+            if (delay == null) {
+                return primary;
+            }
+
+            // Each copy that fails or comes back empty while the other is still running stays silent,
+            // so the call ends with the last copy's outcome. Errors the retry would not retry end it at once.
+            AtomicInteger running = new AtomicInteger(1);
+            Mono<T> hedge = Mono.delay(delay)
+                    .flatMap(tick -> {
+                        if (!tryAcquireHedge()) {
+                            return Mono.never();
+                        }
+                        running.incrementAndGet();
+                        hedgesSent.increment();
+                        return timed(call.get())
+                                .doOnNext(value -> hedgesWon.increment())
+                                .onErrorResume(e -> isRetryable(e) && running.decrementAndGet() > 0, e -> Mono.never())
+                                .switchIfEmpty(Mono.defer(() -> running.decrementAndGet() > 0 ? Mono.never() : Mono.empty()));
+                    });
+            return Mono.firstWithSignal(
+                    primary.onErrorResume(e -> isRetryable(e) && running.decrementAndGet() > 0, e -> Mono.never()),
+                    hedge);
+        });
+    }
+
+    // A copy cancelled because the other answered first took at least as long as it ran, so it is
+    // recorded too; leaving it out would bias the percentile low.
+    private <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            Runnable record = () -> {
+                if (recorded.compareAndSet(false, true)) {
+                    recordLatency(System.nanoTime() - startedAt);
+                }
+            };
+            return call.doOnNext(value -> record.run()).doOnCancel(record);
+        });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof WebClientRequestException || error instanceof ProductRequestException;
+    }
+
+    private boolean tryAcquireHedge() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < MILLI_TOKENS_PER_HEDGE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - MILLI_TOKENS_PER_HEDGE));
+        return true;
+    }
+
+    // The window holds the previous and the current LATENCY_WINDOW samples, so the percentile always
+    // covers between one and two windows of recent calls.
+    void recordLatency(long nanos) {
+        latencies.recordValue(Math.min(nanos, currentWindow.getHighestTrackableValue()));
+        long count = samples.incrementAndGet();
+        if (count >= MIN_SAMPLES && count % RECOMPUTE_EVERY == 0 && recomputing.compareAndSet(false, true)) {
+            try {
+                interval = latencies.getIntervalHistogram(interval);
+                currentWindow.add(interval);
+                if (currentWindow.getTotalCount() >= LATENCY_WINDOW) {
+                    Histogram full = currentWindow;
+                    currentWindow = previousWindow;
+                    currentWindow.reset();
+                    previousWindow = full;
+                }
+                Histogram window = previousWindow.copy();
+                window.add(currentWindow);
+                hedgeDelay = clamp(Duration.ofNanos(window.getValueAtPercentile(percentile * 100)));
+            } finally {
+                recomputing.set(false);
+            }
+        }
+    }
+
+    private Duration clamp(Duration delay) {
+        if (delay.compareTo(minDelay) < 0) {
+            return minDelay;
+        }
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+
+    Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    long getSampleCount() {
+        return samples.get();
+    }
+}
@@ -0,0 +1,47 @@
+package com.between.products.adapter.out.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upstream calls sent for one operation, the calls in flight, and the callers that joined a load
+ * already in flight instead of sending their own call. Concurrent callers for the same key share
+ * one load through the caches in front of the upstream, so joins are counted where they wait on it.
+ */
+class UpstreamCallMetrics {
+
+    private final Counter upstreamCalls;
+    private final Counter coalescedCalls;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    UpstreamCallMetrics(String operation, MeterRegistry meterRegistry) {
+        this.upstreamCalls = Counter.builder("product.api.upstream.calls")
+                .description("Upstream calls actually sent to the product API")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("product.api.upstream.coalesced")
+                .description("Calls served by joining an upstream call already in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("product.api.upstream.inflight", inFlight, AtomicInteger::get)
+                .description("Upstream calls currently in flight")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    <T> Mono<T> track(Mono<T> call) {
+        return Mono.defer(() -> {
+            upstreamCalls.increment();
+            inFlight.incrementAndGet();
+            return call.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    void joined() {
+        coalescedCalls.increment();
+    }
+}
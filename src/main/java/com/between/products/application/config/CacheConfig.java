@@ -1,26 +1,33 @@
 package com.between.products.application.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 @Configuration
-@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
+    public static final String SIMILAR_IDS = "similarIds";
+    public static final String PRODUCT_DETAIL = "productDetail";
+    public static final String PRODUCT_NOT_FOUND = "productNotFound";
+    public static final String SIMILAR_PRODUCTS = "similarProducts";
+    public static final String ENCODED_JSON = "encodedJson";
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CaffeineCacheFactory caffeineCacheFactory) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-
-        cacheManager.setCaffeine(
-                Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).maximumSize(1000));
-
+        // Only the caches registered below exist; asking for any other name returns null.
+        cacheManager.setCacheNames(List.of());
         cacheManager.setAsyncCacheMode(true);
+        // Without null values the cache hands out Caffeine's own futures, so cancelling a load reaches the upstream call.
+        cacheManager.setAllowNullValues(false);
+
+        cacheManager.registerCustomCache(SIMILAR_IDS, caffeineCacheFactory.newBuilder(SIMILAR_IDS).buildAsync());
 
         return cacheManager;
     }
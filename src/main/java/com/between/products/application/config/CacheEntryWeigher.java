@@ -0,0 +1,94 @@
+package com.between.products.application.config;
+
+import com.between.products.domain.product.Product;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Estimates the retained heap of a cache entry in bytes, assuming a 64-bit JVM with compressed
+ * oops. The figures are deliberately rough: they only need to keep the sum of all weights close
+ * enough to the real heap usage for {@code maximum-weight} to be a usable memory budget.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    // Caffeine node (key/value refs, access/write links, timestamps) plus its hash table slot.
+    static final int ENTRY_OVERHEAD = 64;
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = ENTRY_OVERHEAD + estimate(key) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    static long estimate(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return 16;
+        }
+        if (value instanceof String string) {
+            return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + string.length());
+        }
+        if (value instanceof BigDecimal decimal) {
+            long bigDecimal = align(OBJECT_HEADER + 4 + 4 + 8 + 2 * REFERENCE);
+            return decimal.precision() > 18
+                    ? bigDecimal + align(OBJECT_HEADER + 24) + align(ARRAY_HEADER + (long) decimal.unscaledValue().bitLength() / 8 + 4)
+                    : bigDecimal;
+        }
+        if (value instanceof byte[] bytes) {
+            return align(ARRAY_HEADER + bytes.length);
+        }
+        if (value instanceof int[] ints) {
+            return align(ARRAY_HEADER + 4L * ints.length);
+        }
+        if (value instanceof Product product) {
+            // Three references, the unscaled price, its scale and the flags byte; a price that does not
+            // fit the compact form is retained as its BigDecimal.
+            BigDecimal price = product.getPrice();
+            return align(OBJECT_HEADER + 3 * REFERENCE + 8 + 2)
+                    + estimate(product.getId())
+                    + estimate(product.getName())
+                    + (price != null && !fitsCompactPrice(price) ? estimate(price) : 0);
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = align(OBJECT_HEADER + 8) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+            for (Object element : collection) {
+                bytes += estimate(element);
+            }
+            return bytes;
+        }
+        if (value instanceof Record record) {
+            RecordComponent[] components = record.getClass().getRecordComponents();
+            long bytes = align(OBJECT_HEADER + (long) components.length * REFERENCE);
+            for (RecordComponent component : components) {
+                bytes += estimate(componentValue(record, component));
+            }
+            return bytes;
+        }
+        return align(OBJECT_HEADER + 4 * REFERENCE);
+    }
+
+    private static boolean fitsCompactPrice(BigDecimal price) {
+        return price.scale() == (byte) price.scale() && price.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    private static Object componentValue(Record record, RecordComponent component) {
+        try {
+            component.getAccessor().setAccessible(true);
+            return component.getAccessor().invoke(record);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,44 @@
+package com.between.products.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "product.cache")
+public record CacheProperties(Map<String, Spec> specs) {
+
+    public CacheProperties {
+        specs = specs == null ? Map.of() : Map.copyOf(specs);
+    }
+
+    public Spec spec(String cacheName) {
+        Spec spec = specs.get(cacheName);
+        if (spec == null) {
+            throw new IllegalStateException("Missing cache spec: product.cache.specs." + cacheName);
+        }
+        return spec;
+    }
+
+    /**
+     * A cache is bounded either by entry count ({@code maximumSize}) or by the estimated heap
+     * bytes of its entries ({@code maximumWeight}), never both.
+     */
+    public record Spec(Duration expireAfterWrite, Duration refreshAfterWrite, Long maximumSize, DataSize maximumWeight) {
+
+        public Spec {
+            if ((maximumSize == null) == (maximumWeight == null)) {
+                throw new IllegalArgumentException("Exactly one of maximum-size or maximum-weight must be set per cache");
+            }
+        }
+
+        public static Spec ofSize(Duration expireAfterWrite, Duration refreshAfterWrite, long maximumSize) {
+            return new Spec(expireAfterWrite, refreshAfterWrite, maximumSize, null);
+        }
+
+        public static Spec ofWeight(Duration expireAfterWrite, Duration refreshAfterWrite, DataSize maximumWeight) {
+            return new Spec(expireAfterWrite, refreshAfterWrite, null, maximumWeight);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.between.products.application.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the application's Caffeine caches. Their contents are kept across a CRaC checkpoint, so a
+ * restored process starts warm; stopping and starting the context brackets the checkpoint for the
+ * {@link CheckpointAwareTicker} the caches age entries with.
+ */
+@Component
+public class CaffeineCacheFactory implements SmartLifecycle {
+
+    // Same tag keys Spring Boot uses for the caches it binds from the CacheManager.
+    private static final Iterable<Tag> STANDALONE_CACHE_TAGS = Tags.of("cache.manager", "caffeineCacheFactory");
+
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final CheckpointAwareTicker ticker = new CheckpointAwareTicker();
+    private volatile boolean running;
+
+    public CaffeineCacheFactory(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Caffeine<Object, Object> newBuilder(String cacheName) {
+        CacheProperties.Spec spec = cacheProperties.spec(cacheName);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .ticker(ticker)
+                .recordStats(() -> new MicrometerStatsCounter(meterRegistry, cacheName));
+
+        if (spec.maximumWeight() != null) {
+            builder.maximumWeight(spec.maximumWeight().toBytes())
+                    .weigher(new CacheEntryWeigher());
+        } else {
+            builder.maximumSize(spec.maximumSize());
+        }
+        if (spec.expireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.expireAfterWrite());
+        }
+        if (spec.refreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.refreshAfterWrite());
+        }
+        return builder;
+    }
+
+    public <K, V> Cache<K, V> build(String cacheName) {
+        Cache<K, V> cache = newBuilder(cacheName).build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName, STANDALONE_CACHE_TAGS);
+    }
+
+    // Eviction listeners run synchronously inside the entry's atomic removal.
+    public <K, V> Cache<K, V> build(String cacheName, RemovalListener<K, V> evictionListener) {
+        Cache<K, V> cache = newBuilder(cacheName).evictionListener(evictionListener).build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName, STANDALONE_CACHE_TAGS);
+    }
+
+    public <K, V> AsyncLoadingCache<K, V> buildAsync(String cacheName, AsyncCacheLoader<? super K, V> loader) {
+        AsyncLoadingCache<K, V> cache = newBuilder(cacheName).buildAsync(loader);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName, STANDALONE_CACHE_TAGS);
+    }
+
+    public <K, V> AsyncLoadingCache<K, V> buildAsync(String cacheName, AsyncCacheLoader<? super K, V> loader,
+                                                     RemovalListener<K, V> removalListener) {
+        AsyncLoadingCache<K, V> cache = newBuilder(cacheName).removalListener(removalListener).buildAsync(loader);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName, STANDALONE_CACHE_TAGS);
+    }
+
+    @Override
+    public void start() {
+        ticker.restore();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        ticker.checkpoint();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,52 @@
+package com.between.products.application.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link System#nanoTime()} that also counts the wall-clock time a CRaC snapshot was stored
+ * before being restored, whether or not the JVM advances {@code nanoTime} across the restore.
+ * Cache entries therefore expire and refresh on schedule in a restored process.
+ */
+final class CheckpointAwareTicker implements Ticker {
+
+    private final LongSupplier nanoTime;
+    private final LongSupplier currentTimeMillis;
+    private volatile long offsetNanos;
+    private long checkpointNanos;
+    private long checkpointMillis = -1;
+
+    CheckpointAwareTicker() {
+        this(System::nanoTime, System::currentTimeMillis);
+    }
+
+    CheckpointAwareTicker(LongSupplier nanoTime, LongSupplier currentTimeMillis) {
+        this.nanoTime = nanoTime;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public long read() {
+        return nanoTime.getAsLong() + offsetNanos;
+    }
+
+    synchronized void checkpoint() {
+        checkpointNanos = nanoTime.getAsLong();
+        checkpointMillis = currentTimeMillis.getAsLong();
+    }
+
+    // Adds whatever part of the wall-clock gap nanoTime did not show.
+    synchronized void restore() {
+        if (checkpointMillis < 0) {
+            return;
+        }
+        long wallClockNanos = TimeUnit.MILLISECONDS.toNanos(currentTimeMillis.getAsLong() - checkpointMillis);
+        long elapsedNanos = nanoTime.getAsLong() - checkpointNanos;
+        if (wallClockNanos > elapsedNanos) {
+            offsetNanos += wallClockNanos - elapsedNanos;
+        }
+        checkpointMillis = -1;
+    }
+}
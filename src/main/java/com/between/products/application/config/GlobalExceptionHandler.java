@@ -1,16 +1,20 @@
 package com.between.products.application.config;
 
 import com.between.products.domain.error.ErrorResponse;
+import com.between.products.domain.product.ProductApiUnavailableException;
 import com.between.products.domain.product.ProductNotFoundException;
 import com.between.products.domain.product.ProductRequestException;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,12 +30,27 @@ public class GlobalExceptionHandler {
         return getResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
     }
 
+    @ExceptionHandler(ProductApiUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleProductApiUnavailableException(
+            ProductApiUnavailableException ex) {
+        return getResponseEntity(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex) {
         return getResponseEntity(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleHandlerMethodValidationException(
+            HandlerMethodValidationException ex) {
+        String message = ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining("; "));
+        return getResponseEntity(HttpStatus.BAD_REQUEST, message);
+    }
+
     private static ResponseEntity<ErrorResponse> getResponseEntity(
             HttpStatus status, String message) {
         ErrorResponse errorResponse =
@@ -0,0 +1,31 @@
+package com.between.products.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Executor the gRPC server runs service methods and call callbacks on. {@code poolSize} and
+ * {@code queueCapacity} only apply to {@link Type#BOUNDED}.
+ */
+@ConfigurationProperties(prefix = "product.grpc.executor")
+public record GrpcExecutorProperties(Type type, Integer poolSize, Integer queueCapacity) {
+
+    public GrpcExecutorProperties {
+        type = type == null ? Type.DEFAULT : type;
+        poolSize = poolSize == null ? Runtime.getRuntime().availableProcessors() : poolSize;
+        queueCapacity = queueCapacity == null ? 1000 : queueCapacity;
+        if (poolSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("product.grpc.executor pool-size and queue-capacity must be at least 1");
+        }
+    }
+
+    public enum Type {
+        /** gRPC's own unbounded cached thread pool. */
+        DEFAULT,
+        /** Runs on the Netty event loop that read the call; anything blocking stalls every call on that loop. */
+        DIRECT,
+        /** A new virtual thread per task. */
+        VIRTUAL,
+        /** {@code poolSize} threads; new calls are rejected with RESOURCE_EXHAUSTED while {@code queueCapacity} tasks wait. */
+        BOUNDED
+    }
+}
@@ -0,0 +1,21 @@
+package com.between.products.application.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GrpcExecutorProperties.class)
+public class GrpcServerConfig {
+
+    @Bean
+    public GrpcServerExecutorConfigurer grpcServerExecutorConfigurer(GrpcExecutorProperties executor, MeterRegistry meterRegistry) {
+        return new GrpcServerExecutorConfigurer(executor, meterRegistry);
+    }
+
+    @Bean
+    public GrpcServerEventLoops grpcServerEventLoops() {
+        return new GrpcServerEventLoops();
+    }
+}
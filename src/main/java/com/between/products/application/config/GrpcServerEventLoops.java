@@ -0,0 +1,82 @@
+package com.between.products.application.config;
+
+import io.grpc.ServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.ServerChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event loops of the gRPC Netty server, owned by the context instead of shared by gRPC. gRPC
+ * releases its shared loops a second after the server stops, too late for a CRaC checkpoint
+ * taken right after the context stopped, and their selectors are open files a snapshot cannot
+ * hold. These are shut down once the server has stopped and created again when it starts.
+ */
+public class GrpcServerEventLoops implements GrpcServerConfigurer, SmartLifecycle {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private EventLoopGroup boss;
+    private EventLoopGroup worker;
+    private volatile boolean running;
+
+    @Override
+    public synchronized void accept(ServerBuilder<?> serverBuilder) {
+        // The in-process server used in tests has no event loops.
+        if (!(serverBuilder instanceof NettyServerBuilder nettyServerBuilder)) {
+            return;
+        }
+        if (boss == null) {
+            boss = eventLoopGroup(1, "grpc-boss");
+            worker = eventLoopGroup(0, "grpc-worker");
+        }
+        nettyServerBuilder.bossEventLoopGroup(boss)
+                .workerEventLoopGroup(worker)
+                .channelType(channelType());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (boss != null) {
+            boss.shutdownGracefully(0, SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS).syncUninterruptibly();
+            worker.shutdownGracefully(0, SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS).syncUninterruptibly();
+            boss = null;
+            worker = null;
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the gRPC server, which has the highest phase, and starts before it.
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    private static EventLoopGroup eventLoopGroup(int threads, String name) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+        return Epoll.isAvailable() ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    private static Class<? extends ServerChannel> channelType() {
+        return Epoll.isAvailable() ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+}
@@ -0,0 +1,92 @@
+package com.between.products.application.config;
+
+import io.grpc.Metadata;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link GrpcExecutorProperties} to the gRPC server. The service methods only assemble
+ * reactive pipelines, so the direct executor saves a thread hop per call and callback.
+ * <p>
+ * The bounded pool admits a new call only while fewer than {@code queueCapacity} tasks are waiting,
+ * and otherwise closes it with {@code RESOURCE_EXHAUSTED} before the service method runs. The queue
+ * itself is unbounded, so callbacks of calls already admitted are never rejected.
+ */
+public class GrpcServerExecutorConfigurer implements GrpcServerConfigurer, AutoCloseable {
+
+    private final GrpcExecutorProperties.Type type;
+    private final int queueCapacity;
+    private final ExecutorService executor;
+    private final Counter rejectedCalls;
+
+    public GrpcServerExecutorConfigurer(GrpcExecutorProperties properties, MeterRegistry meterRegistry) {
+        this.type = properties.type();
+        this.queueCapacity = properties.queueCapacity();
+        this.rejectedCalls = Counter.builder("grpc.server.calls.rejected")
+                .description("gRPC calls closed with RESOURCE_EXHAUSTED because the bounded executor was saturated")
+                .register(meterRegistry);
+        this.executor = switch (type) {
+            case DEFAULT, DIRECT -> null;
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-virtual-", 0).factory());
+            case BOUNDED -> {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.poolSize(), properties.poolSize(),
+                        0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                        Thread.ofPlatform().name("grpc-bounded-", 0).daemon().factory());
+                // Pool size, active threads and queued tasks, without timing every task.
+                new ExecutorServiceMetrics(pool, "grpc.server", Tags.empty()).bindTo(meterRegistry);
+                yield pool;
+            }
+        };
+    }
+
+    @Override
+    public void accept(ServerBuilder<?> serverBuilder) {
+        switch (type) {
+            case DEFAULT -> {
+            }
+            case DIRECT -> serverBuilder.directExecutor();
+            case VIRTUAL -> serverBuilder.executor(executor);
+            // Admission runs on the transport thread, and each admitted call is then moved to the pool.
+            case BOUNDED -> {
+                serverBuilder.directExecutor();
+                serverBuilder.callExecutor(new ServerCallExecutorSupplier() {
+                    @Override
+                    public <ReqT, RespT> Executor getExecutor(ServerCall<ReqT, RespT> call, Metadata headers) {
+                        return admit(call);
+                    }
+                });
+            }
+        }
+    }
+
+    private Executor admit(ServerCall<?, ?> call) {
+        if (((ThreadPoolExecutor) executor).getQueue().size() < queueCapacity) {
+            return executor;
+        }
+        rejectedCalls.increment();
+        call.close(Status.RESOURCE_EXHAUSTED.withDescription("gRPC executor queue is full"), new Metadata());
+        return null;
+    }
+
+    // The server stops before beans are destroyed, so no call is still running on the executor.
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
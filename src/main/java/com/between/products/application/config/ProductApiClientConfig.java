@@ -0,0 +1,76 @@
+package com.between.products.application.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties({ProductApiPoolProperties.class, ProductApiHttpProperties.class})
+public class ProductApiClientConfig {
+
+    /**
+     * With metrics enabled, Reactor Netty publishes {@code reactor.netty.connection.provider.*}
+     * gauges (total, active, idle and pending connections) tagged with the pool name. Over HTTP/2
+     * the pool holds {@code product.api.http.h2.max-connections} connections instead, and opens
+     * another one only when every stream of the existing ones is in use.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productApiConnectionProvider(ProductApiPoolProperties pool, ProductApiHttpProperties http) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.name())
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictionInterval())
+                .metrics(pool.metricsEnabled());
+        if (http.version().isHttp2()) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(http.h2().maxConnections())
+                    .maxConcurrentStreams(http.h2().maxConcurrentStreams())
+                    .build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ProductApiConnectionLifecycle productApiConnectionLifecycle(ConnectionProvider productApiConnectionProvider) {
+        return new ProductApiConnectionLifecycle(productApiConnectionProvider);
+    }
+
+    @Bean
+    public ClientHttpConnector productApiClientHttpConnector(ConnectionProvider productApiConnectionProvider,
+                                                             ProductApiHttpProperties http,
+                                                             @Value("${product.api.timeouts.connect}") int connectTimeout,
+                                                             @Value("${product.api.timeouts.read}") int readTimeout,
+                                                             @Value("${product.api.timeouts.write}") int writeTimeout,
+                                                             @Value("${product.api.timeouts.response}") int responseTimeout) {
+        HttpClient httpClient = HttpClient.create(productApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .doOnConnected(connection -> {
+                    connection.addHandlerLast(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS));
+                    connection.addHandlerLast(new WriteTimeoutHandler(writeTimeout, TimeUnit.MILLISECONDS));
+                })
+                .responseTimeout(Duration.ofMillis(responseTimeout));
+
+        httpClient = switch (http.version()) {
+            case HTTP_1_1 -> httpClient.protocol(HttpProtocol.HTTP11);
+            case H2C -> httpClient.protocol(HttpProtocol.H2C);
+            case H2 -> httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        };
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
@@ -0,0 +1,45 @@
+package com.between.products.application.config;
+
+import org.springframework.context.SmartLifecycle;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Closes the pooled product API connections when the context stops, which includes a CRaC
+ * checkpoint, since a snapshot cannot hold open sockets. The pool opens connections again on
+ * demand, so starting needs nothing.
+ */
+public class ProductApiConnectionLifecycle implements SmartLifecycle {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ConnectionProvider connectionProvider;
+    private volatile boolean running;
+
+    public ProductApiConnectionLifecycle(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        connectionProvider.disposeLater().block(CLOSE_TIMEOUT);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // After the servers, before the Reactor Netty event loops (phase 0) that the connections run on.
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+}
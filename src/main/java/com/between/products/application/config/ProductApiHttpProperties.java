@@ -0,0 +1,37 @@
+package com.between.products.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP version spoken to the product API. Over HTTP/2 the detail calls of a fan-out are
+ * multiplexed as streams over at most {@code h2.maxConnections} connections.
+ */
+@ConfigurationProperties(prefix = "product.api.http")
+public record ProductApiHttpProperties(Version version, H2 h2) {
+
+    public ProductApiHttpProperties {
+        version = version == null ? Version.HTTP_1_1 : version;
+        h2 = h2 == null ? new H2(4, 100) : h2;
+    }
+
+    public enum Version {
+        HTTP_1_1,
+        /** Cleartext HTTP/2 with prior knowledge; the upstream must accept h2c without an upgrade. */
+        H2C,
+        /** HTTP/2 over TLS negotiated through ALPN, falling back to HTTP/1.1 when the upstream does not offer h2. */
+        H2;
+
+        public boolean isHttp2() {
+            return this != HTTP_1_1;
+        }
+    }
+
+    public record H2(int maxConnections, long maxConcurrentStreams) {
+
+        public H2 {
+            if (maxConnections < 1 || maxConcurrentStreams < 1) {
+                throw new IllegalArgumentException("product.api.http.h2 max-connections and max-concurrent-streams must be at least 1");
+            }
+        }
+    }
+}
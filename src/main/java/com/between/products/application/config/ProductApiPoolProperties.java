@@ -0,0 +1,26 @@
+package com.between.products.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool of the product API client. {@code pendingAcquireMaxCount} bounds the callers
+ * waiting for a connection and {@code pendingAcquireTimeout} how long each of them waits.
+ */
+@ConfigurationProperties(prefix = "product.api.pool")
+public record ProductApiPoolProperties(String name,
+                                       int maxConnections,
+                                       int pendingAcquireMaxCount,
+                                       Duration pendingAcquireTimeout,
+                                       Duration maxIdleTime,
+                                       Duration maxLifeTime,
+                                       Duration evictionInterval,
+                                       boolean metricsEnabled) {
+
+    public ProductApiPoolProperties {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("product.api.pool.max-connections must be at least 1");
+        }
+    }
+}
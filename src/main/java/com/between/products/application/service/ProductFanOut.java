@@ -0,0 +1,70 @@
+package com.between.products.application.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Component
+public class ProductFanOut {
+
+    private final int maxConcurrency;
+    private final boolean ordered;
+
+    public ProductFanOut(@Value("${product.similar.fan-out.max-concurrency}") int maxConcurrency,
+                         @Value("${product.similar.fan-out.ordered}") boolean ordered) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("product.similar.fan-out.max-concurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
+    }
+
+    public <T> Flux<T> fetch(Integer sourceId, Flux<Integer> ids, Function<Integer, Mono<T>> fetcher) {
+        Flux<Integer> uniqueIds = ids
+                .filter(id -> !id.equals(sourceId))
+                .distinct();
+
+        return ordered
+                ? uniqueIds.flatMapSequential(fetcher, maxConcurrency)
+                : uniqueIds.flatMap(fetcher, maxConcurrency);
+    }
+
+    /**
+     * Fetches each distinct id once, with the same {@code maxConcurrency} budget as {@link #fetch},
+     * and returns the results that resolved keyed by id.
+     */
+    public <T> Mono<Map<Integer, T>> fetchAll(Collection<Integer> ids, Function<Integer, Mono<T>> fetcher) {
+        return Flux.fromIterable(new LinkedHashSet<>(ids))
+                .flatMap(id -> fetcher.apply(id).map(value -> Map.entry(id, value)), maxConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Fetches {@code ids} with the same {@code maxConcurrency} budget as {@link #fetch}, emitting
+     * results as they resolve paired with the position of their id, so a caller that stops early
+     * can still put what it has in order.
+     */
+    public <T> Flux<Tuple2<Long, T>> fetchIndexed(List<Integer> ids, Function<Integer, Mono<T>> fetcher) {
+        return Flux.fromIterable(ids)
+                .index()
+                .flatMap(indexed -> fetcher.apply(indexed.getT2()).map(value -> Tuples.of(indexed.getT1(), value)),
+                        maxConcurrency);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+}
@@ -1,24 +1,123 @@
 package com.between.products.application.service;
 
+import com.between.products.application.service.SimilarProductsCache.MaterializedProducts;
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductApiUnavailableException;
+import com.between.products.domain.product.SimilarProducts;
 import com.between.products.port.in.ProductInPort;
 import com.between.products.port.out.rest.ProductOutPort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class ProductService implements ProductInPort {
     private final ProductOutPort productOutPort;
+    private final ProductFanOut productFanOut;
+    private final SimilarProductsCache similarProductsCache;
+    private final Duration maxLatencyBudget;
 
-    public ProductService(ProductOutPort productOutPort) {
+    public ProductService(ProductOutPort productOutPort, ProductFanOut productFanOut,
+                          SimilarProductsCache similarProductsCache,
+                          @Value("${product.similar.latency-budget.max}") Duration maxLatencyBudget) {
         this.productOutPort = productOutPort;
+        this.productFanOut = productFanOut;
+        this.similarProductsCache = similarProductsCache;
+        this.maxLatencyBudget = maxLatencyBudget;
     }
 
     @Override
     public Flux<Product> getSimilarProducts(String productId) {
-        return productOutPort.getProductSimilarIds(Integer.valueOf(productId))
-                .flatMap(id -> productOutPort.getProductDetail(id)
-                        .onErrorResume(e -> Mono.empty()));
+        Integer sourceId = Integer.valueOf(productId);
+        return similarProductsCache.get(sourceId, dependencies ->
+                productFanOut.fetch(sourceId, productOutPort.getProductSimilarIds(sourceId), id -> {
+                    dependencies.accept(id);
+                    return productOutPort.getProductDetail(id)
+                            .onErrorResume(ProductService::isSkippable, e -> Mono.empty());
+                }));
+    }
+
+    @Override
+    public Mono<SimilarProducts> getSimilarProducts(String productId, Duration latencyBudget) {
+        Integer sourceId = Integer.valueOf(productId);
+        Duration budget = latencyBudget == null || latencyBudget.compareTo(maxLatencyBudget) > 0
+                ? maxLatencyBudget
+                : latencyBudget;
+        return Mono.defer(() -> {
+            AtomicBoolean expired = new AtomicBoolean();
+            long deadlineNanos = System.nanoTime() + budget.toNanos();
+            Mono<Long> deadline = Mono.defer(() -> Mono.delay(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()))))
+                    .doOnNext(tick -> expired.set(true));
+            return similarProductsCache.getAll(List.of(sourceId), sourceIds -> loadSimilarProducts(sourceId, deadline))
+                    .map(productsBySource -> new SimilarProducts(
+                            productsBySource.getOrDefault(sourceId, List.of()), expired.get()));
+        });
+    }
+
+    // Stopping at the deadline cancels the detail fetches still running; the products resolved by
+    // then are put back in similar-ids order, and an incomplete list is not materialized.
+    private Mono<Map<Integer, MaterializedProducts>> loadSimilarProducts(Integer sourceId, Mono<Long> deadline) {
+        return productOutPort.getProductSimilarIds(sourceId)
+                .filter(id -> !id.equals(sourceId))
+                .distinct()
+                .collectList()
+                .takeUntilOther(deadline)
+                .flatMap(similarIds -> productFanOut.fetchIndexed(similarIds, id -> productOutPort.getProductDetail(id)
+                                .onErrorResume(ProductService::isSkippable, e -> Mono.empty()))
+                        .takeUntilOther(deadline)
+                        .collectSortedList(Comparator.comparing(Tuple2::getT1))
+                        .map(resolved -> Map.of(sourceId, new MaterializedProducts(
+                                resolved.stream().map(Tuple2::getT2).toList(), similarIds))))
+                .defaultIfEmpty(Map.of());
+    }
+
+    @Override
+    public Mono<Map<String, List<Product>>> getSimilarProducts(Collection<String> productIds) {
+        List<Integer> sourceIds = productIds.stream().map(Integer::valueOf).distinct().toList();
+        return similarProductsCache.getAll(sourceIds, this::loadSimilarProducts)
+                .map(productsBySource -> {
+                    Map<String, List<Product>> result = new LinkedHashMap<>();
+                    productsBySource.forEach((sourceId, products) -> result.put(String.valueOf(sourceId), products));
+                    return result;
+                });
+    }
+
+    // Similar ids first, then the union of their details, so overlapping sets share one fetch per id.
+    private Mono<Map<Integer, MaterializedProducts>> loadSimilarProducts(List<Integer> sourceIds) {
+        return productFanOut.fetchAll(sourceIds, sourceId -> productOutPort.getProductSimilarIds(sourceId)
+                        .filter(id -> !id.equals(sourceId))
+                        .distinct()
+                        .collectList()
+                        .onErrorResume(ProductService::isSkippable, e -> Mono.empty()))
+                .flatMap(similarIds -> {
+                    Set<Integer> detailIds = new LinkedHashSet<>();
+                    similarIds.values().forEach(detailIds::addAll);
+                    return productFanOut.fetchAll(detailIds, id -> productOutPort.getProductDetail(id)
+                                    .onErrorResume(ProductService::isSkippable, e -> Mono.empty()))
+                            .map(details -> {
+                                Map<Integer, MaterializedProducts> built = new LinkedHashMap<>();
+                                similarIds.forEach((sourceId, ids) -> built.put(sourceId, new MaterializedProducts(
+                                        ids.stream().map(details::get).filter(Objects::nonNull).toList(), ids)));
+                                return built;
+                            });
+                });
+    }
+
+    // A product that fails is left out of the list, but no connection to the product API fails the whole request.
+    private static boolean isSkippable(Throwable error) {
+        return !(error instanceof ProductApiUnavailableException);
     }
 }
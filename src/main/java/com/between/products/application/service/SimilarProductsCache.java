@@ -0,0 +1,195 @@
+package com.between.products.application.service;
+
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductDetailChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Materialized {@code List<Product>} per source product, indexed by the detail ids it was built
+ * from so that a changed or evicted detail drops every list that contains it.
+ */
+@Component
+public class SimilarProductsCache {
+
+    private static final int INVALIDATION_STRIPES = 4096;
+
+    private final Cache<Integer, MaterializedProducts> materialized;
+    private final ConcurrentMap<Integer, Set<Integer>> sourcesByDependency = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationClock = new AtomicLong();
+    private final AtomicLongArray lastInvalidation = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    public SimilarProductsCache(CaffeineCacheFactory caffeineCacheFactory) {
+        this.materialized = caffeineCacheFactory.build(CacheConfig.SIMILAR_PRODUCTS,
+                (sourceId, products, cause) -> {
+                    if (sourceId != null && products != null) {
+                        unindex(sourceId, products);
+                    }
+                });
+    }
+
+    /**
+     * Serves the materialized list for {@code sourceId}, or streams {@code loader} and stores its
+     * result once it completes. The loader reports every detail id it fetches to the given
+     * consumer; a result is only stored if each of those ids produced a product and none of them
+     * was invalidated while the list was being built.
+     */
+    public Flux<Product> get(Integer sourceId, Function<Consumer<Integer>, Flux<Product>> loader) {
+        return Flux.defer(() -> {
+            MaterializedProducts cached = materialized.getIfPresent(sourceId);
+            if (cached != null) {
+                return Flux.fromIterable(cached.products());
+            }
+
+            long startedAt = invalidationClock.get();
+            Queue<Integer> dependencies = new ConcurrentLinkedQueue<>();
+            List<Product> products = new ArrayList<>();
+            return loader.apply(dependencies::add)
+                    .doOnNext(products::add)
+                    .doOnComplete(() -> {
+                        MaterializedProducts built = new MaterializedProducts(List.copyOf(products), List.copyOf(dependencies));
+                        if (built.isComplete()) {
+                            store(sourceId, built, startedAt);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Bulk variant of {@link #get}: serves the materialized lists it has and passes every other
+     * source id to a single {@code loader} call, which returns per source the products it built and
+     * the detail ids it fetched for them. Sources the loader leaves out are missing from the result.
+     */
+    public Mono<Map<Integer, List<Product>>> getAll(Collection<Integer> sourceIds,
+                                                    Function<List<Integer>, Mono<Map<Integer, MaterializedProducts>>> loader) {
+        return Mono.defer(() -> {
+            Map<Integer, List<Product>> cached = new LinkedHashMap<>();
+            List<Integer> missing = new ArrayList<>();
+            for (Integer sourceId : sourceIds) {
+                MaterializedProducts products = materialized.getIfPresent(sourceId);
+                if (products != null) {
+                    cached.put(sourceId, products.products());
+                } else {
+                    missing.add(sourceId);
+                }
+            }
+            if (missing.isEmpty()) {
+                return Mono.just(cached);
+            }
+
+            long startedAt = invalidationClock.get();
+            return loader.apply(missing).map(loaded -> {
+                Map<Integer, List<Product>> result = new LinkedHashMap<>();
+                for (Integer sourceId : sourceIds) {
+                    MaterializedProducts built = loaded.get(sourceId);
+                    if (built != null && built.isComplete()) {
+                        store(sourceId, built, startedAt);
+                    }
+                    List<Product> products = built != null ? built.products() : cached.get(sourceId);
+                    if (products != null) {
+                        result.put(sourceId, products);
+                    }
+                }
+                return result;
+            });
+        });
+    }
+
+    @EventListener
+    public void onProductDetailChanged(ProductDetailChangedEvent event) {
+        Integer productId = event.productId();
+        lastInvalidation.accumulateAndGet(stripe(productId), invalidationClock.incrementAndGet(), Math::max);
+
+        Set<Integer> sources = sourcesByDependency.get(productId);
+        if (sources == null) {
+            return;
+        }
+        for (Integer sourceId : List.copyOf(sources)) {
+            materialized.asMap().computeIfPresent(sourceId, (key, current) -> {
+                if (!current.dependencies().contains(productId)) {
+                    return current;
+                }
+                unindex(key, current);
+                return null;
+            });
+        }
+    }
+
+    // Index entries are written before the staleness check, and invalidations stamp their stripe
+    // before reading the index, so a concurrent invalidation is always seen by one of the two sides.
+    private void store(Integer sourceId, MaterializedProducts products, long startedAt) {
+        materialized.asMap().compute(sourceId, (key, previous) -> {
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            index(key, products);
+            for (Integer dependency : products.dependencies()) {
+                if (lastInvalidation.get(stripe(dependency)) > startedAt) {
+                    unindex(key, products);
+                    return null;
+                }
+            }
+            return products;
+        });
+    }
+
+    private void index(Integer sourceId, MaterializedProducts products) {
+        for (Integer dependency : products.dependencies()) {
+            sourcesByDependency.compute(dependency, (key, sources) -> {
+                Set<Integer> updated = sources == null ? ConcurrentHashMap.newKeySet() : sources;
+                updated.add(sourceId);
+                return updated;
+            });
+        }
+    }
+
+    private void unindex(Integer sourceId, MaterializedProducts products) {
+        for (Integer dependency : products.dependencies()) {
+            sourcesByDependency.computeIfPresent(dependency, (key, sources) -> {
+                sources.remove(sourceId);
+                return sources.isEmpty() ? null : sources;
+            });
+        }
+    }
+
+    private static int stripe(Integer productId) {
+        return Math.floorMod(productId * 0x9E3779B9, INVALIDATION_STRIPES);
+    }
+
+    long size() {
+        materialized.cleanUp();
+        return materialized.estimatedSize();
+    }
+
+    int indexedDependencies() {
+        return sourcesByDependency.size();
+    }
+
+    public record MaterializedProducts(List<Product> products, List<Integer> dependencies) {
+
+        // Every dependency produced a product, so nothing was skipped because of an upstream error.
+        boolean isComplete() {
+            return !products.isEmpty() && products.size() == dependencies.size();
+        }
+    }
+}
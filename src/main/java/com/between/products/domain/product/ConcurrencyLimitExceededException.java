@@ -0,0 +1,7 @@
+package com.between.products.domain.product;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public ConcurrencyLimitExceededException(int limit) {
+        super(String.format("Upstream concurrency limit of %d reached", limit));
+    }
+}
@@ -1,15 +1,97 @@
 package com.between.products.domain.product;
 
+import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 
 import java.math.BigDecimal;
 
-@Data
-@Builder
-public class Product {
+/**
+ * A product as it is cached and served. To keep the many cached instances small, the price is held
+ * as an unscaled long and a scale instead of a {@link BigDecimal}, and availability as bits of a
+ * flags byte. Prices whose unscaled value does not fit a long, or whose scale does not fit a byte,
+ * are kept as the {@link BigDecimal} itself.
+ */
+@Getter
+@EqualsAndHashCode
+public final class Product {
+
+    private static final byte HAS_PRICE = 1;
+    private static final byte HAS_AVAILABILITY = 2;
+    private static final byte AVAILABLE = 4;
+    // Powers of ten that are exact as doubles.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
     private final String id;
     private final String name;
-    private final BigDecimal price;
-    private final Boolean availability;
+    @Getter(AccessLevel.NONE)
+    private final long unscaledPrice;
+    @Getter(AccessLevel.NONE)
+    private final byte priceScale;
+    @Getter(AccessLevel.NONE)
+    private final byte flags;
+    @Getter(AccessLevel.NONE)
+    private final BigDecimal widePrice;
+
+    @Builder
+    Product(String id, String name, BigDecimal price, Boolean availability) {
+        this.id = id;
+        this.name = name;
+        byte flags = 0;
+        if (price != null && isCompact(price)) {
+            this.unscaledPrice = price.unscaledValue().longValue();
+            this.priceScale = (byte) price.scale();
+            this.widePrice = null;
+        } else {
+            this.unscaledPrice = 0;
+            this.priceScale = 0;
+            this.widePrice = price;
+        }
+        if (price != null) {
+            flags |= HAS_PRICE;
+        }
+        if (availability != null) {
+            flags |= availability ? HAS_AVAILABILITY | AVAILABLE : HAS_AVAILABILITY;
+        }
+        this.flags = flags;
+    }
+
+    private static boolean isCompact(BigDecimal price) {
+        return price.scale() == (byte) price.scale() && price.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    public BigDecimal getPrice() {
+        if (widePrice != null) {
+            return widePrice;
+        }
+        return (flags & HAS_PRICE) != 0 ? BigDecimal.valueOf(unscaledPrice, priceScale) : null;
+    }
+
+    public Boolean getAvailability() {
+        return (flags & HAS_AVAILABILITY) != 0 ? Boolean.valueOf((flags & AVAILABLE) != 0) : null;
+    }
+
+    /** The price as the nearest double, without creating a {@link BigDecimal} for usual prices; 0 if there is none. */
+    public double priceAsDouble() {
+        if ((flags & HAS_PRICE) == 0) {
+            return 0;
+        }
+        if (widePrice != null) {
+            return widePrice.doubleValue();
+        }
+        if (priceScale >= 0 && priceScale < POWERS_OF_TEN.length && Math.abs(unscaledPrice) <= MAX_EXACT_DOUBLE) {
+            // Both operands are exact, so the division is correctly rounded, like BigDecimal.doubleValue().
+            return unscaledPrice / POWERS_OF_TEN[priceScale];
+        }
+        return getPrice().doubleValue();
+    }
+
+    @Override
+    public String toString() {
+        return "Product(id=" + id + ", name=" + name + ", price=" + getPrice() + ", availability=" + getAvailability() + ")";
+    }
 }
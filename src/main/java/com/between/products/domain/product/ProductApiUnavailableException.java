@@ -0,0 +1,7 @@
+package com.between.products.domain.product;
+
+public class ProductApiUnavailableException extends RuntimeException {
+    public ProductApiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,4 @@
+package com.between.products.domain.product;
+
+public record ProductDetailChangedEvent(Integer productId) {
+}
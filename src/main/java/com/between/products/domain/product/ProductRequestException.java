@@ -2,8 +2,18 @@ package com.between.products.domain.product;
 
 import org.springframework.http.HttpStatusCode;
 
+import java.util.Collection;
+
 public class ProductRequestException extends RuntimeException {
     public ProductRequestException(Integer productId, HttpStatusCode httpStatusCode) {
         super(String.format("Error retrieving product information for id: %d. HTTP Status Code: %s", productId, httpStatusCode.value()));
     }
+
+    public ProductRequestException(String reason, HttpStatusCode httpStatusCode) {
+        super(String.format("%s. HTTP Status Code: %s", reason, httpStatusCode.value()));
+    }
+
+    public ProductRequestException(Collection<Integer> productIds, HttpStatusCode httpStatusCode) {
+        super(String.format("Error retrieving product information for ids: %s. HTTP Status Code: %s", productIds, httpStatusCode.value()));
+    }
 }
@@ -0,0 +1,10 @@
+package com.between.products.domain.product;
+
+import java.util.List;
+
+/**
+ * Similar products resolved within a latency budget. {@code partial} is set when the budget ran
+ * out before every similar product had resolved, so {@code products} holds only the ones that had.
+ */
+public record SimilarProducts(List<Product> products, boolean partial) {
+}
@@ -1,8 +1,30 @@
 package com.between.products.port.in;
 
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.SimilarProducts;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface ProductInPort {
+    int MAX_BULK_PRODUCT_IDS = 50;
+
     Flux<Product> getSimilarProducts(String productId);
+
+    /**
+     * Similar products that resolve within {@code latencyBudget}, capped at the configured maximum
+     * budget, which also applies when {@code latencyBudget} is null. Products still pending when
+     * the budget runs out are dropped and the result is marked partial.
+     */
+    Mono<SimilarProducts> getSimilarProducts(String productId, Duration latencyBudget);
+
+    /**
+     * Similar products for each of {@code productIds}, keyed by product id. Details shared by
+     * several products are fetched once; products whose similar ids cannot be loaded are left out.
+     */
+    Mono<Map<String, List<Product>>> getSimilarProducts(Collection<String> productIds);
 }
@@ -0,0 +1,79 @@
+package com.between.products.adapter.in.grpc;
+
+import com.between.products.adapter.in.grpc.proto.ProductResponse;
+import com.between.products.domain.product.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of turning resolved products into the gRPC response: {@link GRPCProductService#mapToGrpcProduct}
+ * and the protobuf encoding of the {@link ProductResponse}. Run with {@code -prof gc} to see bytes
+ * allocated per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrpcResponseBenchmark {
+
+    @Param({"5", "50"})
+    public int products;
+
+    private final GRPCProductService grpcProductService = new GRPCProductService(null, Duration.ZERO);
+    private Product product;
+    private List<Product> similarProducts;
+    private ProductResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        similarProducts = IntStream.rangeClosed(1, products)
+                .mapToObj(id -> Product.builder()
+                        .id(String.valueOf(id))
+                        .name("Product " + id)
+                        .price(BigDecimal.valueOf(id * 1999L, 2))
+                        .availability(id % 2 == 0)
+                        .build())
+                .toList();
+        product = similarProducts.get(0);
+        response = buildResponse();
+    }
+
+    @Benchmark
+    public com.between.products.adapter.in.grpc.proto.Product mapToGrpcProduct() {
+        return grpcProductService.mapToGrpcProduct(product);
+    }
+
+    @Benchmark
+    public byte[] encodeResponse() {
+        return response.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] mapAndEncode() {
+        return buildResponse().toByteArray();
+    }
+
+    private ProductResponse buildResponse() {
+        return ProductResponse.newBuilder()
+                .addAllProducts(similarProducts.stream().map(grpcProductService::mapToGrpcProduct).toList())
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.between.products.adapter.in.rest;
+
+import com.between.products.adapter.mapper.ProductMapper;
+import com.between.products.adapter.mapper.ProductMapperImpl;
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.application.dto.ProductDTO;
+import com.between.products.domain.product.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of turning resolved products into the REST response body: the MapStruct mapping to
+ * {@link ProductDTO} and its Jackson serialization, with an object mapper configured like Spring
+ * Boot's, against the body {@link ProductController} joins from cached product JSON into a pooled
+ * Netty buffer. Run with {@code -prof gc} to see bytes allocated per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestResponseBenchmark {
+
+    @Param({"5", "50"})
+    public int products;
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductController productController = new ProductController(null, productMapper, objectMapper,
+            new CaffeineCacheFactory(new CacheProperties(Map.of(
+                    CacheConfig.ENCODED_JSON, CacheProperties.Spec.ofSize(Duration.ofMinutes(30), null, 1000))),
+                    new SimpleMeterRegistry()));
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+    private Product product;
+    private List<Product> similarProducts;
+    private List<ProductDTO> similarProductDTOs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        similarProducts = IntStream.rangeClosed(1, products)
+                .mapToObj(id -> Product.builder()
+                        .id(String.valueOf(id))
+                        .name("Product " + id)
+                        .price(BigDecimal.valueOf(id * 1999L, 2))
+                        .availability(id % 2 == 0)
+                        .build())
+                .toList();
+        product = similarProducts.get(0);
+        similarProductDTOs = similarProducts.stream().map(productMapper::toProductDTO).toList();
+    }
+
+    @Benchmark
+    public ProductDTO toProductDTO() {
+        return productMapper.toProductDTO(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductDTOs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(similarProductDTOs);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(similarProducts.stream().map(productMapper::toProductDTO).toList());
+    }
+
+    @Benchmark
+    public int joinCached() {
+        DataBuffer body = productController.toJsonArray(similarProducts, bufferFactory).block();
+        int size = body.readableByteCount();
+        DataBufferUtils.release(body);
+        return size;
+    }
+}
@@ -0,0 +1,101 @@
+package com.between.products.adapter.out.rest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Retained heap per cached product of the {@code similarIds} cache, storing the ids as the boxed
+ * list the {@code @Cacheable} path kept ({@code boxedList}) or as the {@code int[]} decoded by
+ * {@link ProductOutService} ({@code intArray}). Each operation decodes {@code products} upstream
+ * responses into a fresh cache and reports the used-heap growth after a full GC as
+ * {@code bytesPerProduct}; the timing itself is not meaningful. A single measured iteration is
+ * used because JMH sums event counters across iterations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+@State(Scope.Benchmark)
+public class SimilarIdsFootprintBenchmark {
+
+    private static final TypeReference<List<Integer>> BOXED_LIST = new TypeReference<>() {
+    };
+
+    @Param({"boxedList", "intArray"})
+    public String storage;
+
+    @Param({"5", "50"})
+    public int similarIds;
+
+    @Param({"100000"})
+    public int products;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private byte[][] responses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Ids above the Integer cache range, as in a real catalog.
+        Random random = new Random(42);
+        responses = new byte[products][];
+        for (int i = 0; i < products; i++) {
+            responses[i] = objectMapper.writeValueAsBytes(IntStream.range(0, similarIds)
+                    .map(index -> 1_000 + random.nextInt(1_000_000))
+                    .boxed()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytesPerProduct;
+    }
+
+    @Benchmark
+    public Cache<Integer, Object> fillCache(Footprint footprint) throws IOException {
+        long before = usedHeapAfterGc();
+        Cache<Integer, Object> cache = Caffeine.newBuilder().maximumSize(products).build();
+        for (int productId = 0; productId < products; productId++) {
+            cache.put(productId, storage.equals("intArray")
+                    ? objectMapper.readValue(responses[productId], int[].class)
+                    : objectMapper.readValue(responses[productId], BOXED_LIST));
+        }
+        cache.cleanUp();
+        footprint.bytesPerProduct = (usedHeapAfterGc() - before) / products;
+        return cache;
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,92 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.application.config.ProductApiClientConfig;
+import com.between.products.application.config.ProductApiHttpProperties;
+import com.between.products.application.config.ProductApiPoolProperties;
+import com.between.products.domain.product.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of detail fan-outs against {@link UpstreamStub} over HTTP/1.1 and cleartext HTTP/2.
+ * Each operation fetches {@code fanOut} details concurrently, like one similar-products request,
+ * through the connector the application builds. The number of connections the upstream saw is
+ * printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class UpstreamProtocolBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+
+    @Param({"HTTP_1_1", "H2C"})
+    public ProductApiHttpProperties.Version version;
+
+    @Param({"16", "64"})
+    public int fanOut;
+
+    @Param({"2"})
+    public int upstreamLatencyMillis;
+
+    private UpstreamStub upstream;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = UpstreamStub.start(false, Duration.ofMillis(upstreamLatencyMillis)).withProducts(1, PRODUCTS);
+        ProductApiClientConfig clientConfig = new ProductApiClientConfig();
+        ProductApiHttpProperties http = new ProductApiHttpProperties(version, new ProductApiHttpProperties.H2(4, 100));
+        connectionProvider = clientConfig.productApiConnectionProvider(new ProductApiPoolProperties(
+                "benchmark", 500, 1_000, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO, false), http);
+        webClient = WebClient.builder()
+                .baseUrl(upstream.baseUrl())
+                .clientConnector(clientConfig.productApiClientHttpConnector(connectionProvider, http, 2000, 5000, 5000, 5000))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s fan-out %d: %d upstream connections%n", version, fanOut, upstream.detailConnections());
+        connectionProvider.dispose();
+        upstream.close();
+    }
+
+    @Benchmark
+    public List<Product> fanOut() {
+        int first = ThreadLocalRandom.current().nextInt(1, PRODUCTS - fanOut);
+        return Flux.range(first, fanOut)
+                .flatMap(productId -> webClient.get()
+                        .uri("/product/{productId}", productId)
+                        .retrieve()
+                        .bodyToMono(Product.class), fanOut)
+                .collectList()
+                .block();
+    }
+}
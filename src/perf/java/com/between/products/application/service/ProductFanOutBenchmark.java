@@ -0,0 +1,116 @@
+package com.between.products.application.service;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.domain.product.Product;
+import com.between.products.port.out.rest.ProductOutPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * p99 of {@link ProductService#getSimilarProducts} against fan-out settings. The simulated
+ * upstream serves {@code upstreamCapacity} calls at base latency and slows down linearly once
+ * more calls are in flight, which is how the real upstream and its connection pool behave.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ProductFanOutBenchmark {
+
+    @Param({"4", "16", "64", "256"})
+    public int maxConcurrency;
+
+    @Param({"true", "false"})
+    public boolean ordered;
+
+    @Param({"200"})
+    public int similarIds;
+
+    @Param({"64"})
+    public int upstreamCapacity;
+
+    @Param({"5"})
+    public int baseLatencyMillis;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductOutPort upstream = new SimulatedProductOutPort(similarIds, upstreamCapacity, baseLatencyMillis);
+        // A zero-sized materialized cache, so every invocation runs the full fan-out.
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "similarProducts", CacheProperties.Spec.ofSize(Duration.ofMinutes(5), null, 0)));
+        SimilarProductsCache similarProductsCache =
+                new SimilarProductsCache(new CaffeineCacheFactory(cacheProperties, new SimpleMeterRegistry()));
+        productService = new ProductService(upstream, new ProductFanOut(maxConcurrency, ordered), similarProductsCache,
+                Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public List<Product> getSimilarProducts() {
+        return productService.getSimilarProducts("0").collectList().block();
+    }
+
+    static final class SimulatedProductOutPort implements ProductOutPort {
+
+        private final int similarIds;
+        private final int capacity;
+        private final int baseLatencyMillis;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        SimulatedProductOutPort(int similarIds, int capacity, int baseLatencyMillis) {
+            this.similarIds = similarIds;
+            this.capacity = capacity;
+            this.baseLatencyMillis = baseLatencyMillis;
+        }
+
+        @Override
+        public Flux<Integer> getProductSimilarIds(Integer productId) {
+            return Flux.range(1, similarIds);
+        }
+
+        @Override
+        public Mono<Product> getProductDetail(Integer productId) {
+            return Mono.defer(() -> {
+                int load = inFlight.incrementAndGet();
+                double queueing = Math.max(1.0, (double) load / capacity);
+                double jitter = 0.5 + ThreadLocalRandom.current().nextDouble();
+                long latencyMicros = (long) (baseLatencyMillis * 1000 * queueing * jitter);
+                return Mono.delay(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros)))
+                        .map(tick -> Product.builder()
+                                .id(String.valueOf(productId))
+                                .name("Product " + productId)
+                                .price(BigDecimal.TEN)
+                                .availability(true)
+                                .build())
+                        .doFinally(signal -> inFlight.decrementAndGet());
+            });
+        }
+    }
+}
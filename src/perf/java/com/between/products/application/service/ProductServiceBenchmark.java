@@ -0,0 +1,132 @@
+package com.between.products.application.service;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.application.service.SimilarProductsCache.MaterializedProducts;
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.SimilarProducts;
+import com.between.products.port.out.rest.ProductOutPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Per-request cost of {@link ProductService#getSimilarProducts} with an upstream that answers
+ * immediately, so only the service's own work (fan-out, caching, collection) is measured. With
+ * {@code materialized} the assembled list is served from {@link SimilarProductsCache}; without it
+ * the cache is bypassed, so every invocation runs the full fan-out. Run with {@code -prof gc} to see bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    @Param({"5", "50"})
+    public int similarIds;
+
+    @Param({"true", "false"})
+    public boolean materialized;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "similarProducts", CacheProperties.Spec.ofSize(Duration.ofMinutes(5), null, 100)));
+        CaffeineCacheFactory caffeineCacheFactory = new CaffeineCacheFactory(cacheProperties, new SimpleMeterRegistry());
+        // A cache of size 0 still serves entries until Caffeine's asynchronous eviction catches up.
+        SimilarProductsCache similarProductsCache = materialized
+                ? new SimilarProductsCache(caffeineCacheFactory)
+                : new UncachedSimilarProducts(caffeineCacheFactory);
+        productService = new ProductService(new ImmediateProductOutPort(similarIds), new ProductFanOut(16, true),
+                similarProductsCache, Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public List<Product> getSimilarProducts() {
+        return productService.getSimilarProducts("0").collectList().block();
+    }
+
+    @Benchmark
+    public SimilarProducts getSimilarProductsWithinBudget() {
+        return productService.getSimilarProducts("0", null).block();
+    }
+
+    static final class UncachedSimilarProducts extends SimilarProductsCache {
+
+        UncachedSimilarProducts(CaffeineCacheFactory caffeineCacheFactory) {
+            super(caffeineCacheFactory);
+        }
+
+        @Override
+        public Flux<Product> get(Integer sourceId, Function<Consumer<Integer>, Flux<Product>> loader) {
+            return Flux.defer(() -> loader.apply(dependency -> {
+            }));
+        }
+
+        @Override
+        public Mono<Map<Integer, List<Product>>> getAll(Collection<Integer> sourceIds,
+                                                        Function<List<Integer>, Mono<Map<Integer, MaterializedProducts>>> loader) {
+            return Mono.defer(() -> loader.apply(List.copyOf(sourceIds)))
+                    .map(loaded -> {
+                        Map<Integer, List<Product>> result = new LinkedHashMap<>();
+                        loaded.forEach((sourceId, built) -> result.put(sourceId, built.products()));
+                        return result;
+                    });
+        }
+    }
+
+    static final class ImmediateProductOutPort implements ProductOutPort {
+
+        private final Flux<Integer> similarIds;
+        private final Map<Integer, Mono<Product>> details;
+
+        ImmediateProductOutPort(int similarIds) {
+            this.similarIds = Flux.range(1, similarIds);
+            this.details = IntStream.rangeClosed(1, similarIds).boxed()
+                    .collect(Collectors.toMap(id -> id, id -> Mono.just(Product.builder()
+                            .id(String.valueOf(id))
+                            .name("Product " + id)
+                            .price(BigDecimal.valueOf(id, 2))
+                            .availability(id % 2 == 0)
+                            .build())));
+        }
+
+        @Override
+        public Flux<Integer> getProductSimilarIds(Integer productId) {
+            return similarIds;
+        }
+
+        @Override
+        public Mono<Product> getProductDetail(Integer productId) {
+            return details.get(productId);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.between.products.domain.product;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** {@link Product} as it was before it was made compact, kept as the baseline for its benchmarks. */
+@Data
+@Builder
+class LegacyProduct {
+    private final String id;
+    private final String name;
+    private final BigDecimal price;
+    private final Boolean availability;
+}
@@ -0,0 +1,93 @@
+package com.between.products.domain.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per cached product of the {@code productDetail} cache holding the compact
+ * {@link Product} ({@code compact}) or the previous {@link LegacyProduct} ({@code legacy}). Each
+ * operation decodes {@code products} upstream responses into a fresh cache and reports the used-heap growth after a full GC as
+ * {@code bytesPerProduct}; the timing itself is not meaningful. A single measured iteration is
+ * used because JMH sums event counters across iterations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+@State(Scope.Benchmark)
+public class ProductFootprintBenchmark {
+
+    @Param({"legacy", "compact"})
+    public String representation;
+
+    @Param({"100000"})
+    public int products;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private byte[][] responses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        responses = new byte[products][];
+        for (int i = 0; i < products; i++) {
+            responses[i] = objectMapper.writeValueAsBytes(LegacyProduct.builder()
+                    .id(String.valueOf(1_000_000 + i))
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(random.nextInt(1_000_000), 2))
+                    .availability(random.nextBoolean())
+                    .build());
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytesPerProduct;
+    }
+
+    @Benchmark
+    public Cache<Integer, Object> fillCache(Footprint footprint) throws IOException {
+        long before = usedHeapAfterGc();
+        Cache<Integer, Object> cache = Caffeine.newBuilder().maximumSize(products).build();
+        for (int productId = 0; productId < products; productId++) {
+            cache.put(productId, representation.equals("compact")
+                    ? objectMapper.readValue(responses[productId], Product.class)
+                    : objectMapper.readValue(responses[productId], LegacyProduct.class));
+        }
+        cache.cleanUp();
+        footprint.bytesPerProduct = (usedHeapAfterGc() - before) / products;
+        return cache;
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,80 @@
+package com.between.products.domain.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-product cost of the compact {@link Product} against the previous {@link LegacyProduct}:
+ * decoding an upstream detail response and building the gRPC message from it. Run with
+ * {@code -prof gc} to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductRepresentationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] response;
+    private Product product;
+    private LegacyProduct legacyProduct;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        legacyProduct = LegacyProduct.builder()
+                .id("123456")
+                .name("Product 123456")
+                .price(new BigDecimal("199.99"))
+                .availability(true)
+                .build();
+        response = objectMapper.writeValueAsBytes(legacyProduct);
+        product = objectMapper.readValue(response, Product.class);
+    }
+
+    @Benchmark
+    public Product decode() throws IOException {
+        return objectMapper.readValue(response, Product.class);
+    }
+
+    @Benchmark
+    public LegacyProduct decodeLegacy() throws IOException {
+        return objectMapper.readValue(response, LegacyProduct.class);
+    }
+
+    @Benchmark
+    public com.between.products.adapter.in.grpc.proto.Product toGrpcProduct() {
+        return com.between.products.adapter.in.grpc.proto.Product.newBuilder()
+                .setId(product.getId())
+                .setName(product.getName())
+                .setPrice(product.priceAsDouble())
+                .setAvailability(Boolean.TRUE.equals(product.getAvailability()))
+                .build();
+    }
+
+    @Benchmark
+    public com.between.products.adapter.in.grpc.proto.Product toGrpcProductLegacy() {
+        return com.between.products.adapter.in.grpc.proto.Product.newBuilder()
+                .setId(legacyProduct.getId())
+                .setName(legacyProduct.getName())
+                .setPrice(legacyProduct.getPrice().doubleValue())
+                .setAvailability(legacyProduct.getAvailability())
+                .build();
+    }
+}
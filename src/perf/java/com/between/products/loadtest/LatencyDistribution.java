@@ -0,0 +1,47 @@
+package com.between.products.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Upstream response delay. Parsed from {@code fixed:<d>}, {@code uniform:<min>:<max>} or
+ * {@code lognormal:<median>:<p99>}, where each value is a duration such as {@code 5ms}; the
+ * log-normal shape gives the long tail real upstreams have.
+ */
+interface LatencyDistribution {
+
+    // z-score of the 99th percentile of a standard normal distribution.
+    double Z_99 = 2.326;
+
+    Duration next();
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.split(":");
+        return switch (parts[0]) {
+            case "fixed" -> {
+                Duration delay = duration(parts, 1);
+                yield () -> delay;
+            }
+            case "uniform" -> {
+                long min = duration(parts, 1).toNanos();
+                long max = duration(parts, 2).toNanos();
+                yield () -> Duration.ofNanos(ThreadLocalRandom.current().nextLong(min, max + 1));
+            }
+            case "lognormal" -> {
+                double median = duration(parts, 1).toNanos();
+                double sigma = Math.log(duration(parts, 2).toNanos() / median) / Z_99;
+                yield () -> Duration.ofNanos((long) (median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+
+    private static Duration duration(String[] parts, int index) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException("Missing value " + index + " in latency distribution " + String.join(":", parts));
+        }
+        return DurationStyle.detectAndParse(parts[index]);
+    }
+}
@@ -0,0 +1,93 @@
+package com.between.products.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load at a fixed rate: requests are issued on schedule whether or not earlier ones have
+ * answered, and latency is measured from the time a request was due rather than when it was sent,
+ * so a stalled server shows up in the percentiles instead of slowing the load down.
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private LoadGenerator() {
+    }
+
+    static Result run(String name, Supplier<Mono<?>> call, int ratePerSecond, Duration warmup, Duration duration,
+                      Duration timeout) {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong outstanding = new AtomicLong();
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long sent = 0;
+
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (measured) {
+                sent++;
+            }
+            long intendedStart = due;
+            outstanding.incrementAndGet();
+            Mono.defer(call)
+                    .timeout(timeout)
+                    .subscribe(response -> {
+                    }, error -> {
+                        if (measured) {
+                            failed.incrementAndGet();
+                        }
+                        outstanding.decrementAndGet();
+                    }, () -> {
+                        if (measured) {
+                            recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart)));
+                            succeeded.incrementAndGet();
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        long drainUntil = System.nanoTime() + timeout.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return new Result(name, ratePerSecond, duration, sent, succeeded.get(), failed.get(), recorder.getIntervalHistogram());
+    }
+
+    record Result(String name, int targetRate, Duration duration, long sent, long succeeded, long failed,
+                  Histogram latencyMicros) {
+
+        String report() {
+            double seconds = duration.toNanos() / 1e9;
+            return String.format("""
+                            == %s: target %d req/s for %ss ==
+                            sent %d, succeeded %d, failed %d (%.2f%%), throughput %.1f req/s
+                            latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f
+                            """,
+                    name, targetRate, duration.toSeconds(), sent, succeeded, failed,
+                    sent == 0 ? 0.0 : 100.0 * failed / sent, succeeded / seconds,
+                    percentile(50), percentile(90), percentile(99), percentile(99.9),
+                    latencyMicros.getMaxValue() / 1000.0);
+        }
+
+        private double percentile(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.between.products.loadtest;
+
+import com.between.products.ProductsApiTestApplication;
+import com.between.products.adapter.in.grpc.proto.GetProduct;
+import com.between.products.adapter.in.grpc.proto.ProductResponse;
+import com.between.products.adapter.in.grpc.proto.ProductServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the application against a {@link SimulatedUpstream} in the same JVM and drives its REST and
+ * gRPC similar-products endpoints at a target rate. Options are {@code --name=value}:
+ * <ul>
+ *     <li>{@code target}: {@code rest}, {@code grpc} or {@code both} (default {@code both})</li>
+ *     <li>{@code rate}: requests per second per target (default 200)</li>
+ *     <li>{@code warmup} and {@code duration}: unmeasured and measured time (default 10s and 30s)</li>
+ *     <li>{@code timeout}: a request taking longer counts as failed (default 10s)</li>
+ *     <li>{@code catalog} and {@code similar}: catalog size and similar ids per product (default 1000 and 5)</li>
+ *     <li>{@code latency}: upstream {@link LatencyDistribution} (default {@code lognormal:5ms:50ms})</li>
+ *     <li>{@code error-rate}: share of upstream responses that fail with 500 (default 0.01)</li>
+ * </ul>
+ * Any other {@code --name=value} is passed to the application, e.g. {@code --product.api.http.version=H2C}.
+ */
+public final class LoadTestRunner {
+
+    private static final List<String> OPTIONS =
+            List.of("target", "rate", "warmup", "duration", "timeout", "catalog", "similar", "latency", "error-rate");
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                options.put(name, arg.substring(separator + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        String target = options.getOrDefault("target", "both");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "10s"));
+        int catalog = Integer.parseInt(options.getOrDefault("catalog", "1000"));
+        int similar = Integer.parseInt(options.getOrDefault("similar", "5"));
+        LatencyDistribution latency = LatencyDistribution.parse(options.getOrDefault("latency", "lognormal:5ms:50ms"));
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0.01"));
+
+        int httpPort = freePort();
+        int grpcPort = freePort();
+        try (SimulatedUpstream upstream = new SimulatedUpstream(catalog, similar, latency, errorRate)) {
+            addDefault(applicationArgs, "product.api.baseUrl", upstream.baseUrl());
+            addDefault(applicationArgs, "server.port", String.valueOf(httpPort));
+            addDefault(applicationArgs, "grpc.server.port", String.valueOf(grpcPort));
+            addDefault(applicationArgs, "logging.level.root", "ERROR");
+            addDefault(applicationArgs, "logging.level.com.between.products", "OFF");
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductsApiTestApplication.class)
+                    .run(applicationArgs.toArray(String[]::new))) {
+                List<LoadGenerator.Result> results = new ArrayList<>();
+                if (target.equals("rest") || target.equals("both")) {
+                    WebClient webClient = WebClient.create("http://localhost:" + httpPort);
+                    results.add(LoadGenerator.run("rest", () -> webClient.get()
+                            .uri("/product/{productId}/similar", randomProductId(catalog))
+                            .accept(MediaType.APPLICATION_JSON)
+                            .retrieve()
+                            .toBodilessEntity(), rate, warmup, duration, timeout));
+                }
+                if (target.equals("grpc") || target.equals("both")) {
+                    ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcPort).usePlaintext().build();
+                    try {
+                        ProductServiceGrpc.ProductServiceStub stub = ProductServiceGrpc.newStub(channel);
+                        results.add(LoadGenerator.run("grpc", () -> Mono.<ProductResponse>create(sink ->
+                                stub.getSimilarProducts(GetProduct.newBuilder().setProductId(randomProductId(catalog)).build(),
+                                        new StreamObserver<>() {
+                                            @Override
+                                            public void onNext(ProductResponse response) {
+                                                sink.success(response);
+                                            }
+
+                                            @Override
+                                            public void onError(Throwable error) {
+                                                sink.error(error);
+                                            }
+
+                                            @Override
+                                            public void onCompleted() {
+                                            }
+                                        })), rate, warmup, duration, timeout));
+                    } finally {
+                        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+                    }
+                }
+
+                results.forEach(result -> System.out.println(result.report()));
+                System.out.printf("upstream: %d requests, %d injected errors%n", upstream.requests(), upstream.errors());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String randomProductId(int catalog) {
+        return String.valueOf(1 + ThreadLocalRandom.current().nextInt(catalog));
+    }
+
+    private static void addDefault(List<String> applicationArgs, String property, String value) {
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--" + property + "="))) {
+            applicationArgs.add("--" + property + "=" + value);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.between.products.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the upstream product API, serving {@code /product/{id}} and
+ * {@code /product/{id}/similarids} for a catalog of ids {@code 1..catalogSize}. Every product has
+ * the same number of similar ids, picked deterministically so runs are comparable. Each response
+ * is delayed by a draw from the latency distribution, and a share of them fails with 500.
+ */
+final class SimulatedUpstream implements AutoCloseable {
+
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final byte[][] details;
+    private final byte[][] similarIds;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final DisposableServer server;
+
+    SimulatedUpstream(int catalogSize, int similarCount, LatencyDistribution latency, double errorRate) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.details = new byte[catalogSize + 1][];
+        this.similarIds = new byte[catalogSize + 1][];
+        ObjectMapper objectMapper = new ObjectMapper();
+        Random random = new Random(42);
+        for (int id = 1; id <= catalogSize; id++) {
+            details[id] = json(objectMapper, product(id));
+            Set<Integer> similar = new LinkedHashSet<>();
+            while (similar.size() < Math.min(similarCount, catalogSize - 1)) {
+                int similarId = 1 + random.nextInt(catalogSize);
+                if (similarId != id) {
+                    similar.add(similarId);
+                }
+            }
+            similarIds[id] = json(objectMapper, List.copyOf(similar));
+        }
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes
+                        .get("/product/{id}/similarids", (request, response) -> respond(response, similarIds, request.param("id")))
+                        .get("/product/{id}", (request, response) -> respond(response, details, request.param("id"))))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, byte[][] bodies, String id) {
+        requests.incrementAndGet();
+        int productId = Integer.parseInt(id);
+        Mono<Void> send;
+        if (productId < 1 || productId >= bodies.length) {
+            send = response.status(HttpResponseStatus.NOT_FOUND).send().then();
+        } else if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            errors.incrementAndGet();
+            send = response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then();
+        } else {
+            send = response.header("Content-Type", "application/json")
+                    .sendByteArray(Mono.just(bodies[productId]))
+                    .then();
+        }
+        return Mono.delay(latency.next()).then(send);
+    }
+
+    private static Map<String, Object> product(int id) {
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("id", String.valueOf(id));
+        product.put("name", "Product " + id);
+        product.put("price", BigDecimal.valueOf(id * 1999L % 100_000, 2));
+        product.put("availability", id % 3 != 0);
+        return product;
+    }
+
+    private static byte[] json(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.between.products.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request of the packaged application in each startup mode: from launching the JVM
+ * until {@code GET /product/1/similar} against a {@link SimulatedUpstream} first answers 200. The
+ * jar must be built with {@code -Pfast-startup}; it is extracted and CDS archives are created by a
+ * training run the same way the {@code Dockerfile} does. Options are {@code --name=value}:
+ * <ul>
+ *     <li>{@code jar}: the packaged application (required)</li>
+ *     <li>{@code modes}: comma-separated, of {@code jar} (the fat jar), {@code extracted}, {@code aot},
+ *     {@code cds} and {@code aot-cds} (default all)</li>
+ *     <li>{@code runs}: launches per mode (default 5)</li>
+ *     <li>{@code timeout}: a launch answering later fails the run (default 60s)</li>
+ * </ul>
+ */
+public final class StartupBenchmarkRunner {
+
+    private static final List<String> MODES = List.of("jar", "extracted", "aot", "cds", "aot-cds");
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private StartupBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 3) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        Path jar = Path.of(options.getOrDefault("jar", "")).toAbsolutePath();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("--jar must name the packaged application, got " + jar);
+        }
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", String.join(",", MODES)).split(","));
+        modes.stream().filter(mode -> !MODES.contains(mode)).findAny().ifPresent(mode -> {
+            throw new IllegalArgumentException("Unknown mode " + mode + ", expected one of " + MODES);
+        });
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "60s"));
+
+        Path workDir = Files.createTempDirectory("startup-benchmark");
+        Path extracted = workDir.resolve("extracted");
+        run(List.of(java(), "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", extracted.toString()), timeout);
+        Path extractedJar = extracted.resolve(jar.getFileName());
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        try (SimulatedUpstream upstream = new SimulatedUpstream(1000, 5, LatencyDistribution.parse("fixed:1ms"), 0)) {
+            List<String> report = new ArrayList<>();
+            for (String mode : modes) {
+                List<String> jvmOptions = new ArrayList<>();
+                if (mode.startsWith("aot")) {
+                    jvmOptions.add("-Dspring.aot.enabled=true");
+                }
+                if (mode.endsWith("cds")) {
+                    Path archive = workDir.resolve(mode + ".jsa");
+                    List<String> training = new ArrayList<>(jvmOptions);
+                    training.add("-XX:ArchiveClassesAtExit=" + archive);
+                    // Classes that cannot be archived, such as dynamic proxies, are each reported as a warning.
+                    training.add("-Xlog:cds=error");
+                    training.add("-Dspring.context.exit=onRefresh");
+                    run(command(training, extractedJar, upstream), timeout);
+                    jvmOptions.add("-XX:SharedArchiveFile=" + archive);
+                }
+                Path launched = mode.equals("jar") ? jar : extractedJar;
+
+                long[] millis = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    millis[i] = timeToFirstRequest(command(jvmOptions, launched, upstream), httpClient, timeout);
+                }
+                Arrays.sort(millis);
+                report.add(String.format("%-10s min %5d ms  median %5d ms  max %5d ms",
+                        mode, millis[0], millis[runs / 2], millis[runs - 1]));
+            }
+            report.forEach(System.out::println);
+        }
+    }
+
+    private static long timeToFirstRequest(List<String> command, HttpClient httpClient, Duration timeout)
+            throws IOException, InterruptedException {
+        String port = command.stream().filter(arg -> arg.startsWith("--server.port=")).findFirst().orElseThrow()
+                .substring("--server.port=".length());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/product/1/similar"))
+                .header("Accept", "application/json")
+                .timeout(timeout)
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (System.nanoTime() - start < timeout.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException("No successful request within " + timeout + ": " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static List<String> command(List<String> jvmOptions, Path jar, SimulatedUpstream upstream) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-jar", jar.toString(),
+                "--product.api.baseUrl=" + upstream.baseUrl(),
+                "--server.port=" + freePort(),
+                "--grpc.server.port=" + freePort(),
+                "--logging.level.root=ERROR"));
+        return command;
+    }
+
+    private static void run(List<String> command, Duration timeout) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Timed out: " + command);
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("Exited with " + process.exitValue() + ": " + command);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
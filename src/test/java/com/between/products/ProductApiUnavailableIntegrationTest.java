@@ -0,0 +1,56 @@
+package com.between.products;
+
+import com.between.products.adapter.out.rest.UpstreamStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Runs through the Resilience4j-proxied beans: with a single pooled connection held by a slow
+ * detail call, the other detail calls cannot get a connection and the request answers 503.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "product.api.pool.name=unavailable-test",
+        "product.api.pool.max-connections=1",
+        "product.api.pool.pending-acquire-timeout=100ms",
+        "product.api.concurrency-limit.enabled=false"})
+@ActiveProfiles("test")
+class ProductApiUnavailableIntegrationTest {
+
+    private static final UpstreamStub upstream = UpstreamStub.start(false, Duration.ofSeconds(1))
+            .withProducts(1, 3)
+            .withSimilarIds(1, List.of(2, 3));
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("product.api.baseUrl", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void exhaustedConnectionPoolAnswers503() {
+        // Act & Assert
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(5)).build()
+                .get().uri("/product/1/similar")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
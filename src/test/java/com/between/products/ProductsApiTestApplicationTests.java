@@ -1,13 +1,28 @@
 package com.between.products;
 
+import com.between.products.adapter.in.grpc.proto.GetProducts;
+import com.between.products.adapter.in.grpc.proto.ProductServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import net.devh.boot.grpc.server.event.GrpcServerStartedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ExtendWith(SpringExtension.class)
@@ -23,4 +38,38 @@ class ProductsApiTestApplicationTests {
     void mainMethodStartsApplication() {
         ProductsApiTestApplication.main(new String[]{"--spring.profiles.active=test"});
     }
-}
\ No newline at end of file
+
+    // What Spring's CRaC support does around a checkpoint: stop every lifecycle bean, then start them again.
+    @Test
+    @DirtiesContext
+    void serversServeAgainAfterStopAndStart(ConfigurableApplicationContext context) throws InterruptedException {
+        // Arrange
+        AtomicInteger grpcPort = new AtomicInteger();
+        context.addApplicationListener(new ApplicationListener<GrpcServerStartedEvent>() {
+            @Override
+            public void onApplicationEvent(GrpcServerStartedEvent event) {
+                grpcPort.set(event.getPort());
+            }
+        });
+
+        // Act
+        context.stop();
+        context.start();
+
+        // Assert
+        WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                .build()
+                .get().uri("/actuator/health")
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcPort.get()).usePlaintext().build();
+        try {
+            StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+                    () -> ProductServiceGrpc.newBlockingStub(channel).getSimilarProductsBulk(GetProducts.getDefaultInstance()));
+            assertThat(error.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
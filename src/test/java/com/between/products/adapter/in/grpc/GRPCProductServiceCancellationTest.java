@@ -0,0 +1,142 @@
+package com.between.products.adapter.in.grpc;
+
+import com.between.products.adapter.in.grpc.proto.GetProduct;
+import com.between.products.adapter.in.grpc.proto.Product;
+import com.between.products.adapter.in.grpc.proto.ProductResponse;
+import com.between.products.adapter.in.grpc.proto.ProductServiceGrpc;
+import com.between.products.adapter.out.rest.AdaptiveConcurrencyLimiter;
+import com.between.products.adapter.out.rest.NegativeProductCache;
+import com.between.products.adapter.out.rest.ProductOutService;
+import com.between.products.adapter.out.rest.RequestHedger;
+import com.between.products.adapter.out.rest.UpstreamStub;
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.application.service.ProductFanOut;
+import com.between.products.application.service.ProductService;
+import com.between.products.application.service.SimilarProductsCache;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+class GRPCProductServiceCancellationTest {
+
+    private static final Duration UPSTREAM_LATENCY = Duration.ofSeconds(5);
+
+    private UpstreamStub upstream;
+    private Server server;
+    private ManagedChannel channel;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = UpstreamStub.start(false, UPSTREAM_LATENCY)
+                .withProducts(2, 21)
+                .withSimilarIds(1, IntStream.rangeClosed(2, 21).boxed().toList());
+
+        meterRegistry = new SimpleMeterRegistry();
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "productDetail", CacheProperties.Spec.ofSize(Duration.ofMinutes(30), null, 1000),
+                "productNotFound", CacheProperties.Spec.ofSize(Duration.ofMinutes(1), null, 1000),
+                "similarProducts", CacheProperties.Spec.ofSize(Duration.ofMinutes(5), null, 1000)));
+        CaffeineCacheFactory caffeineCacheFactory = new CaffeineCacheFactory(cacheProperties, meterRegistry);
+        ProductOutService productOutService = new ProductOutService(
+                WebClient.builder(),
+                new ConcurrentMapCacheManager(),
+                caffeineCacheFactory,
+                new NegativeProductCache(caffeineCacheFactory, cacheProperties, meterRegistry, 0.01),
+                mock(ApplicationEventPublisher.class),
+                new RequestHedger(false, 0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 10, meterRegistry),
+                new AdaptiveConcurrencyLimiter(true, 20, 4, 200, 200, Duration.ofMillis(500), meterRegistry),
+                new ReactorClientHttpConnector(),
+                meterRegistry,
+                upstream.baseUrl(),
+                false,
+                "/products",
+                Duration.ofMillis(2),
+                50);
+        ProductService productService = new ProductService(productOutService, new ProductFanOut(8, true),
+                new SimilarProductsCache(caffeineCacheFactory), Duration.ofSeconds(10));
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .addService(new GRPCProductService(productService, Duration.ofMillis(50)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        upstream.close();
+    }
+
+    @Test
+    void deadlineBoundedCallAnswersPartialAndReleasesUpstreamConnections() {
+        // Arrange
+        ProductServiceGrpc.ProductServiceBlockingStub stub = ProductServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(300, TimeUnit.MILLISECONDS);
+
+        // Act
+        ProductResponse response = stub.getSimilarProducts(GetProduct.newBuilder().setProductId("1").build());
+
+        // Assert
+        assertThat(response.getPartial()).isTrue();
+        assertThat(response.getProductsList()).isEmpty();
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> {
+            assertThat(upstream.activeDetailCalls()).isZero();
+            assertThat(upstreamInFlight()).isZero();
+        });
+        assertThat(upstream.singleCalls()).isEqualTo(8);
+    }
+
+    @Test
+    void cancelledStreamReleasesUpstreamConnections() {
+        // Arrange
+        ProductServiceGrpc.ProductServiceBlockingStub stub = ProductServiceGrpc.newBlockingStub(channel);
+        Context.CancellableContext call = Context.current().withCancellation();
+
+        // Act
+        call.run(() -> {
+            Iterator<Product> products = stub.streamSimilarProducts(GetProduct.newBuilder().setProductId("1").build());
+            await().atMost(Duration.ofSeconds(2)).until(() -> upstream.activeDetailCalls() == 8);
+            call.cancel(null);
+            assertThatThrownBy(products::hasNext).isInstanceOf(StatusRuntimeException.class);
+        });
+
+        // Assert
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> {
+            assertThat(upstream.activeDetailCalls()).isZero();
+            assertThat(upstreamInFlight()).isZero();
+        });
+        assertThat(upstream.singleCalls()).isEqualTo(8);
+    }
+
+    private double upstreamInFlight() {
+        return meterRegistry.get("product.api.upstream.inflight").tag("operation", "productDetail").gauge().value();
+    }
+}
@@ -1,34 +1,55 @@
 package com.between.products.adapter.in.grpc;
 
 import com.between.products.adapter.in.grpc.proto.GetProduct;
+import com.between.products.adapter.in.grpc.proto.GetProducts;
 import com.between.products.adapter.in.grpc.proto.ProductResponse;
+import com.between.products.adapter.in.grpc.proto.SimilarProductsBulkResponse;
 import com.between.products.domain.product.Product;
-import com.between.products.port.out.rest.ProductOutPort;
-import io.grpc.stub.StreamObserver;
+import com.between.products.domain.product.SimilarProducts;
+import com.between.products.port.in.ProductInPort;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.mockito.ArgumentMatchers.anyInt;
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class GRPCProductServiceTest {
 
     private GRPCProductService grpcProductService;
-    private ProductOutPort productOutPort;
-    private StreamObserver<ProductResponse> responseObserver;
+    private ProductInPort productInPort;
+    private ServerCallStreamObserver<ProductResponse> responseObserver;
 
     @BeforeEach
     void setUp() {
-        productOutPort = mock(ProductOutPort.class);
-        grpcProductService = new GRPCProductService(productOutPort);
-        responseObserver = mock(StreamObserver.class);
+        productInPort = mock(ProductInPort.class);
+        grpcProductService = new GRPCProductService(productInPort, Duration.ofMillis(50));
+        responseObserver = mock(ServerCallStreamObserver.class);
     }
 
     @Test
@@ -38,14 +59,10 @@ class GRPCProductServiceTest {
                 .setProductId("123")
                 .build();
 
-        when(productOutPort.getProductSimilarIds(anyInt())).thenReturn(Flux.just(1, 2, 3));
-
-        when(productOutPort.getProductDetail(1))
-                .thenReturn(Mono.just(Product.builder().id("1").name("Product A").price(BigDecimal.valueOf(100.0)).availability(true).build()));
-        when(productOutPort.getProductDetail(2))
-                .thenReturn(Mono.just(Product.builder().id("2").name("Product B").price(BigDecimal.valueOf(200.0)).availability(true).build()));
-        when(productOutPort.getProductDetail(3))
-                .thenReturn(Mono.just(Product.builder().id("3").name("Product C").price(BigDecimal.valueOf(300.0)).availability(true).build()));
+        when(productInPort.getSimilarProducts("123", null)).thenReturn(Mono.just(new SimilarProducts(List.of(
+                Product.builder().id("1").name("Product A").price(BigDecimal.valueOf(100.0)).availability(true).build(),
+                Product.builder().id("2").name("Product B").price(BigDecimal.valueOf(200.0)).availability(true).build(),
+                Product.builder().id("3").name("Product C").price(BigDecimal.valueOf(300.0)).availability(true).build()), false)));
 
         // Act
         grpcProductService.getSimilarProducts(request, responseObserver);
@@ -56,21 +73,22 @@ class GRPCProductServiceTest {
             return products.size() == 3 &&
                     products.get(0).getId().equals("1") &&
                     products.get(1).getId().equals("2") &&
-                    products.get(2).getId().equals("3");
+                    products.get(2).getId().equals("3") &&
+                    !response.getPartial();
         }));
         Mockito.verify(responseObserver).onCompleted();
     }
 
     @Test
-    void getSimilarProducts_shouldHandleError_whenProductOutPortFails() {
+    void getSimilarProducts_shouldHandleError_whenProductInPortFails() {
         // Arrange
         GetProduct request = GetProduct.newBuilder()
                 .setProductId("123")
                 .build();
 
-        // Simular un error en productOutPort.getProductSimilarIds
-        when(productOutPort.getProductSimilarIds(anyInt()))
-                .thenReturn(Flux.error(new RuntimeException("Error fetching similar IDs")));
+        // Simular un error en productInPort.getSimilarProducts
+        when(productInPort.getSimilarProducts(anyString(), any()))
+                .thenReturn(Mono.error(new RuntimeException("Error fetching similar IDs")));
 
         // Act
         grpcProductService.getSimilarProducts(request, responseObserver);
@@ -78,4 +96,168 @@ class GRPCProductServiceTest {
         // Assert
         Mockito.verify(responseObserver).onError(Mockito.any(Throwable.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSimilarProducts_shouldCancelUpstream_whenClientCancels() {
+        // Arrange
+        ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        when(productInPort.getSimilarProducts("123", null))
+                .thenReturn(Mono.<SimilarProducts>never().doOnCancel(() -> upstreamCancelled.set(true)));
+
+        // Act
+        grpcProductService.getSimilarProducts(GetProduct.newBuilder().setProductId("123").build(), responseObserver);
+        verify(responseObserver).setOnCancelHandler(onCancel.capture());
+        onCancel.getValue().run();
+
+        // Assert
+        assertThat(upstreamCancelled).isTrue();
+        verify(responseObserver, never()).onNext(any());
+    }
+
+    @Test
+    void getSimilarProducts_shouldFailWithDeadlineExceeded_whenDeadlineExpires() {
+        // Arrange
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        when(productInPort.getSimilarProducts(eq("123"), any()))
+                .thenReturn(Mono.<SimilarProducts>never().doOnCancel(() -> upstreamCancelled.set(true)));
+
+        // Act
+        try {
+            Context.current()
+                    .withDeadlineAfter(50, TimeUnit.MILLISECONDS, scheduler)
+                    .run(() -> grpcProductService.getSimilarProducts(
+                            GetProduct.newBuilder().setProductId("123").build(), responseObserver));
+
+            // Assert
+            verify(responseObserver, timeout(1000)).onError(Mockito.argThat(error ->
+                    error instanceof StatusRuntimeException statusError
+                            && statusError.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED));
+            assertThat(upstreamCancelled).isTrue();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void getSimilarProducts_shouldUseDeadlineMinusMarginAsBudgetAndReportPartial() {
+        // Arrange
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ArgumentCaptor<Duration> budget = ArgumentCaptor.forClass(Duration.class);
+        when(productInPort.getSimilarProducts(eq("123"), budget.capture()))
+                .thenReturn(Mono.just(new SimilarProducts(List.of(
+                        Product.builder().id("1").name("Product A").price(BigDecimal.ONE).availability(true).build()), true)));
+
+        // Act
+        try {
+            Context.current()
+                    .withDeadlineAfter(1, TimeUnit.SECONDS, scheduler)
+                    .run(() -> grpcProductService.getSimilarProducts(
+                            GetProduct.newBuilder().setProductId("123").build(), responseObserver));
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        // Assert
+        assertThat(budget.getValue()).isBetween(Duration.ofMillis(800), Duration.ofMillis(950));
+        verify(responseObserver).onNext(Mockito.argThat(response ->
+                response.getPartial() && response.getProductsCount() == 1));
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void streamSimilarProducts_shouldEmitEachProduct_whenClientIsReady() {
+        // Arrange
+        ServerCallStreamObserver<com.between.products.adapter.in.grpc.proto.Product> streamObserver =
+                mock(ServerCallStreamObserver.class);
+        when(streamObserver.isReady()).thenReturn(true);
+        when(productInPort.getSimilarProducts("123")).thenReturn(Flux.just(product(1), product(2), product(3)));
+
+        // Act
+        grpcProductService.streamSimilarProducts(GetProduct.newBuilder().setProductId("123").build(), streamObserver);
+
+        // Assert
+        verify(streamObserver, times(3)).onNext(any());
+        verify(streamObserver).onCompleted();
+    }
+
+    @Test
+    void streamSimilarProducts_shouldWaitForClient_whenTransportIsNotReady() {
+        // Arrange
+        ServerCallStreamObserver<com.between.products.adapter.in.grpc.proto.Product> streamObserver =
+                mock(ServerCallStreamObserver.class);
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        when(streamObserver.isReady()).thenReturn(false);
+        when(productInPort.getSimilarProducts("123")).thenReturn(Flux.just(product(1), product(2)));
+
+        // Act
+        grpcProductService.streamSimilarProducts(GetProduct.newBuilder().setProductId("123").build(), streamObserver);
+        verify(streamObserver, never()).onNext(any());
+        verify(streamObserver).setOnReadyHandler(onReady.capture());
+        when(streamObserver.isReady()).thenReturn(true);
+        onReady.getValue().run();
+
+        // Assert
+        verify(streamObserver, times(2)).onNext(any());
+        verify(streamObserver).onCompleted();
+    }
+
+    @Test
+    void streamSimilarProducts_shouldCancelUpstream_whenClientCancels() {
+        // Arrange
+        ServerCallStreamObserver<com.between.products.adapter.in.grpc.proto.Product> streamObserver =
+                mock(ServerCallStreamObserver.class);
+        ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        when(streamObserver.isReady()).thenReturn(true);
+        when(productInPort.getSimilarProducts("123"))
+                .thenReturn(Flux.<Product>never().doOnCancel(() -> upstreamCancelled.set(true)));
+
+        // Act
+        grpcProductService.streamSimilarProducts(GetProduct.newBuilder().setProductId("123").build(), streamObserver);
+        verify(streamObserver).setOnCancelHandler(onCancel.capture());
+        onCancel.getValue().run();
+
+        // Assert
+        assertThat(upstreamCancelled).isTrue();
+        verify(streamObserver, never()).onCompleted();
+    }
+
+    @Test
+    void getSimilarProductsBulk_shouldReturnProductsKeyedById() {
+        // Arrange
+        ServerCallStreamObserver<SimilarProductsBulkResponse> bulkObserver = mock(ServerCallStreamObserver.class);
+        when(productInPort.getSimilarProducts(List.of("1", "2")))
+                .thenReturn(Mono.just(Map.of("1", List.of(product(3)), "2", List.of(product(3), product(4)))));
+
+        // Act
+        grpcProductService.getSimilarProductsBulk(
+                GetProducts.newBuilder().addProductIds("1").addProductIds("2").build(), bulkObserver);
+
+        // Assert
+        verify(bulkObserver).onNext(Mockito.argThat(response ->
+                response.getSimilarProductsOrThrow("1").getProductsCount() == 1
+                        && response.getSimilarProductsOrThrow("2").getProducts(1).getId().equals("4")));
+        verify(bulkObserver).onCompleted();
+    }
+
+    @Test
+    void getSimilarProductsBulk_shouldRejectTooManyIds() {
+        // Arrange
+        ServerCallStreamObserver<SimilarProductsBulkResponse> bulkObserver = mock(ServerCallStreamObserver.class);
+        GetProducts.Builder request = GetProducts.newBuilder();
+        for (int id = 1; id <= ProductInPort.MAX_BULK_PRODUCT_IDS + 1; id++) {
+            request.addProductIds(String.valueOf(id));
+        }
+
+        // Act
+        grpcProductService.getSimilarProductsBulk(request.build(), bulkObserver);
+
+        // Assert
+        verify(bulkObserver).onError(Mockito.argThat(error ->
+                error instanceof StatusRuntimeException statusError
+                        && statusError.getStatus().getCode() == Status.Code.INVALID_ARGUMENT));
+        Mockito.verifyNoInteractions(productInPort);
+    }
+}
@@ -0,0 +1,68 @@
+package com.between.products.adapter.in.rest;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.domain.product.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedProductCacheTest {
+
+    private AtomicInteger encodings;
+    private EncodedProductCache encodedProducts;
+
+    @BeforeEach
+    void setUp() {
+        encodings = new AtomicInteger();
+        CaffeineCacheFactory caffeineCacheFactory = new CaffeineCacheFactory(new CacheProperties(Map.of(
+                "encoded", CacheProperties.Spec.ofSize(Duration.ofMinutes(30), null, 1000))), new SimpleMeterRegistry());
+        encodedProducts = new EncodedProductCache(caffeineCacheFactory, "encoded", product -> {
+            encodings.incrementAndGet();
+            return product.getName().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    @Test
+    void sameProductIsEncodedOnce() {
+        // Arrange
+        Product product = product(1);
+
+        // Act
+        byte[] first = encodedProducts.get(product);
+        byte[] second = encodedProducts.get(product);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(encodings).hasValue(1);
+    }
+
+    @Test
+    void reloadedProductIsEncodedAgain() {
+        // Arrange
+        Product product = product(1);
+        Product reloaded = Product.builder()
+                .id("1")
+                .name("Renamed")
+                .price(BigDecimal.TEN)
+                .availability(true)
+                .build();
+        encodedProducts.get(product);
+
+        // Act
+        byte[] encoded = encodedProducts.get(reloaded);
+
+        // Assert
+        assertThat(new String(encoded, StandardCharsets.UTF_8)).isEqualTo("Renamed");
+        assertThat(encodings).hasValue(2);
+    }
+}
@@ -1,10 +1,15 @@
 package com.between.products.adapter.in.rest;
 
 import com.between.products.adapter.mapper.ProductMapper;
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
 import com.between.products.application.dto.ProductDTO;
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.SimilarProducts;
 import com.between.products.port.in.ProductInPort;
 import com.between.products.port.out.rest.ProductOutPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,11 +17,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(ProductController.class)
@@ -70,7 +86,8 @@ class ProductControllerIntegrationTest {
                 .availability(true)
                 .build();
 
-        when(productInPort.getSimilarProducts(productId)).thenReturn(Flux.just(expectedProduct2, expectedProduct3));
+        when(productInPort.getSimilarProducts(productId, null))
+                .thenReturn(Mono.just(new SimilarProducts(List.of(expectedProduct2, expectedProduct3), false)));
         when(productMapper.toProductDTO(Mockito.any(Product.class))).thenAnswer(invocation -> {
             Product product = invocation.getArgument(0);
             return ProductDTO.builder()
@@ -86,11 +103,12 @@ class ProductControllerIntegrationTest {
                 .uri("/product/{productId}/similar", productId)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(ProductController.PARTIAL_RESPONSE_HEADER, "false")
                 .expectBodyList(ProductDTO.class)
                 .contains(productDTO2, productDTO3);
 
         // Assert
-        Mockito.verify(productInPort).getSimilarProducts(productId);
+        Mockito.verify(productInPort).getSimilarProducts(productId, null);
     }
 
     @Test
@@ -112,7 +130,8 @@ class ProductControllerIntegrationTest {
                 .availability(true)
                 .build();
 
-        when(productInPort.getSimilarProducts(productId)).thenReturn(Flux.just(expectedProduct2, expectedProduct3));
+        when(productInPort.getSimilarProducts(productId, null))
+                .thenReturn(Mono.just(new SimilarProducts(List.of(expectedProduct2, expectedProduct3), false)));
 
 
         // Act
@@ -122,7 +141,139 @@ class ProductControllerIntegrationTest {
                 .expectStatus().is5xxServerError();
 
         // Assert
-        Mockito.verify(productInPort).getSimilarProducts(productId);
+        Mockito.verify(productInPort).getSimilarProducts(productId, null);
+    }
+
+    @Test
+    void getSimilarProducts_shouldStreamEachProduct_whenNdjsonIsRequested() {
+        // Arrange
+        Sinks.Many<Product> products = Sinks.many().unicast().onBackpressureBuffer();
+        when(productInPort.getSimilarProducts("1")).thenReturn(products.asFlux());
+        mapProductsToDTOs();
+        products.tryEmitNext(product(2));
+
+        // Act
+        Flux<ProductDTO> body = webTestClient.get()
+                .uri("/product/{productId}/similar", "1")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductDTO.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(body)
+                .assertNext(dto -> assertThat(dto.getId()).isEqualTo("2"))
+                .then(() -> products.tryEmitNext(product(3)))
+                .assertNext(dto -> assertThat(dto.getId()).isEqualTo("3"))
+                .then(products::tryEmitComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void getSimilarProducts_shouldSendServerSentEvents_whenEventStreamIsRequested() {
+        // Arrange
+        when(productInPort.getSimilarProducts("1")).thenReturn(Flux.just(product(2), product(3)));
+        mapProductsToDTOs();
+
+        // Act
+        Flux<ProductDTO> body = webTestClient.get()
+                .uri("/product/{productId}/similar", "1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(ProductDTO.class)
+                .getResponseBody();
+
+        // Assert
+        StepVerifier.create(body)
+                .assertNext(dto -> assertThat(dto.getId()).isEqualTo("2"))
+                .assertNext(dto -> assertThat(dto.getId()).isEqualTo("3"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getSimilarProducts_shouldPassLatencyBudgetAndMarkPartialResponse() {
+        // Arrange
+        when(productInPort.getSimilarProducts("1", Duration.ofMillis(200)))
+                .thenReturn(Mono.just(new SimilarProducts(List.of(product(2)), true)));
+        mapProductsToDTOs();
+
+        // Act
+        webTestClient.get()
+                .uri("/product/{productId}/similar", "1")
+                .header(ProductController.LATENCY_BUDGET_HEADER, "200")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ProductController.PARTIAL_RESPONSE_HEADER, "true")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo("2");
+
+        // Assert
+        Mockito.verify(productInPort).getSimilarProducts("1", Duration.ofMillis(200));
+    }
+
+    @Test
+    void getSimilarProducts_shouldRejectNonPositiveLatencyBudget() {
+        // Act
+        webTestClient.get()
+                .uri("/product/{productId}/similar", "1")
+                .header(ProductController.LATENCY_BUDGET_HEADER, "0")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        // Assert
+        Mockito.verifyNoInteractions(productInPort);
+    }
+
+    @Test
+    void getSimilarProductsBulk_shouldReturnProductsKeyedById() {
+        // Arrange
+        when(productInPort.getSimilarProducts(List.of("1", "2")))
+                .thenReturn(Mono.just(Map.of("1", List.of(product(3)), "2", List.of(product(3), product(4)))));
+        mapProductsToDTOs();
+
+        // Act
+        webTestClient.get()
+                .uri("/product/similar?productIds=1,2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.1[0].id").isEqualTo("3")
+                .jsonPath("$.2.length()").isEqualTo(2)
+                .jsonPath("$.2[1].id").isEqualTo("4");
+    }
+
+    @Test
+    void getSimilarProductsBulk_shouldRejectTooManyIds() {
+        // Arrange
+        String productIds = IntStream.rangeClosed(1, ProductInPort.MAX_BULK_PRODUCT_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        // Act
+        webTestClient.get()
+                .uri("/product/similar?productIds=" + productIds)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        // Assert
+        Mockito.verifyNoInteractions(productInPort);
+    }
+
+    private void mapProductsToDTOs() {
+        when(productMapper.toProductDTO(Mockito.any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return ProductDTO.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .price(product.getPrice())
+                    .availability(product.getAvailability())
+                    .build();
+        });
     }
 
 
@@ -136,5 +287,12 @@ class ProductControllerIntegrationTest {
         public ProductMapper productMapper() {
             return Mockito.mock(ProductMapper.class);
         }
+
+        @Bean
+        public CaffeineCacheFactory caffeineCacheFactory() {
+            return new CaffeineCacheFactory(new CacheProperties(Map.of(
+                    CacheConfig.ENCODED_JSON, CacheProperties.Spec.ofSize(Duration.ofMinutes(30), null, 1000))),
+                    new SimpleMeterRegistry());
+        }
     }
 }
\ No newline at end of file
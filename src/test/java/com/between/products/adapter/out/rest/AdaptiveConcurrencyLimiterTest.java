@@ -0,0 +1,217 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long ONE_MS = Duration.ofMillis(1).toNanos();
+    private static final ClientRequest REQUEST = ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/product/1")).build();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter(true, initialLimit, 1, 100, 10, maxWait, meterRegistry);
+    }
+
+    @Test
+    void limitGrowsWhileRoundTripTimeStaysFlat() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(10, Duration.ofMillis(100));
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(ONE_MS, limiter.getLimit(), true);
+        }
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(100);
+        assertThat(meterRegistry.get("product.api.concurrency.limit").gauge().value()).isEqualTo(100);
+    }
+
+    @Test
+    void limitShrinksWhenRoundTripTimeRises() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(50, Duration.ofMillis(100));
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(ONE_MS, limiter.getLimit(), true);
+        }
+        int before = limiter.getLimit();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10 * ONE_MS, limiter.getLimit(), true);
+        }
+
+        // Assert
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+    }
+
+    @Test
+    void underusedLimitDoesNotGrow() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(20, Duration.ofMillis(100));
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(ONE_MS, 1, true);
+        }
+
+        // Assert
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void callsOverLimitWaitForPermit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofSeconds(5));
+        Sinks.One<ClientResponse> first = Sinks.one();
+        List<Integer> sent = new ArrayList<>();
+
+        // Act
+        Mono<ClientResponse> firstCall = limiter.filter(REQUEST, request -> {
+            sent.add(1);
+            return first.asMono();
+        });
+        Mono<ClientResponse> secondCall = limiter.filter(REQUEST, request -> {
+            sent.add(2);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        });
+        Disposable firstSubscription = firstCall.flatMap(ClientResponse::releaseBody).subscribe();
+
+        // Assert
+        StepVerifier.create(secondCall)
+                .then(() -> assertThat(sent).containsExactly(1))
+                .then(() -> first.tryEmitValue(ClientResponse.create(HttpStatus.OK).build()))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(sent).containsExactly(1, 2);
+        firstSubscription.dispose();
+    }
+
+    @Test
+    void permitIsHeldUntilTheBodyHasBeenRead() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofSeconds(5));
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ClientResponse firstResponse = ClientResponse.create(HttpStatus.OK).body(Flux.from(body.asFlux())).build();
+        List<Integer> sent = new ArrayList<>();
+
+        // Act
+        Disposable firstSubscription = limiter.filter(REQUEST, request -> Mono.just(firstResponse))
+                .flatMap(response -> response.bodyToMono(String.class))
+                .subscribe();
+        Mono<ClientResponse> secondCall = limiter.filter(REQUEST, request -> {
+            sent.add(2);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        });
+
+        // Assert
+        StepVerifier.create(secondCall)
+                .then(() -> assertThat(sent).isEmpty())
+                .then(() -> body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap("{}".getBytes())))
+                .then(() -> assertThat(sent).isEmpty())
+                .then(body::tryEmitComplete)
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(sent).containsExactly(2);
+        firstSubscription.dispose();
+    }
+
+    @Test
+    void waitingCallIsRejectedAfterMaxWait() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofMillis(50));
+        Disposable holder = limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+
+        // Act & Assert
+        StepVerifier.create(limiter.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK).build())))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ConcurrencyLimitExceededException.class))
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("product.api.concurrency.rejected").counter().count()).isEqualTo(1);
+        holder.dispose();
+    }
+
+    @Test
+    void cancelledCallsGiveBackTheirPermit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofSeconds(5));
+        Disposable holder = limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+        Disposable waiter = limiter.filter(REQUEST, request -> Mono.never()).subscribe();
+
+        // Act
+        waiter.dispose();
+        holder.dispose();
+
+        // Assert
+        assertThat(meterRegistry.get("product.api.concurrency.inflight").gauge().value()).isZero();
+        StepVerifier.create(limiter.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK).build())))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void queueIsEmptyAfterRacingTimeoutsCancelsAndReleases() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 2, 1, 4, 1000, Duration.ofMillis(1), meterRegistry);
+        Random random = new Random(42);
+        // Responses and cancellations come from threads of their own, so they race the limiter's timeouts.
+        Scheduler upstream = Schedulers.newParallel("upstream", 4);
+        Scheduler callers = Schedulers.newParallel("callers", 4);
+
+        // Act
+        try {
+            Flux.range(0, 20_000)
+                    .flatMap(i -> limiter.filter(REQUEST, request -> Mono.delay(Duration.ofNanos(random.nextInt(500_000)), upstream)
+                                            .thenReturn(ClientResponse.create(HttpStatus.OK).build()))
+                                    .flatMap(ClientResponse::releaseBody)
+                                    .timeout(Duration.ofNanos(random.nextInt(2_000_000)), Mono.empty(), callers)
+                                    .onErrorResume(ConcurrencyLimitExceededException.class, e -> Mono.empty()),
+                            64)
+                    .blockLast(Duration.ofSeconds(60));
+        } finally {
+            upstream.dispose();
+            callers.dispose();
+        }
+
+        // Assert
+        assertThat(meterRegistry.get("product.api.concurrency.queued").gauge().value()).isZero();
+        assertThat(meterRegistry.get("product.api.concurrency.rejected").counter().count()).isPositive();
+    }
+
+    @Test
+    void rejectsInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new AdaptiveConcurrencyLimiter(true, 5, 10, 100, 10, Duration.ofMillis(100), meterRegistry));
+    }
+}
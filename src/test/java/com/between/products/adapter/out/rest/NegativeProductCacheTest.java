@@ -0,0 +1,71 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class NegativeProductCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NegativeProductCache createCache(Duration ttl) {
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "productNotFound", CacheProperties.Spec.ofSize(ttl, null, 1000)));
+        return new NegativeProductCache(new CaffeineCacheFactory(cacheProperties, meterRegistry), cacheProperties, meterRegistry, 0.01);
+    }
+
+    @Test
+    void recordedIdsAreReportedAsNotFound() {
+        // Arrange
+        NegativeProductCache cache = createCache(Duration.ofMinutes(1));
+
+        // Act
+        cache.recordNotFound(42);
+
+        // Assert
+        assertThat(cache.isNotFound(42)).isTrue();
+        assertThat(cache.isNotFound(43)).isFalse();
+        assertThat(meterRegistry.get("product.api.notfound.hits").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesExpireAfterTheirTtl() {
+        // Arrange
+        NegativeProductCache cache = createCache(Duration.ofMillis(50));
+
+        // Act
+        cache.recordNotFound(42);
+
+        // Assert
+        assertThat(cache.isNotFound(42)).isTrue();
+        await().atMost(Duration.ofSeconds(1)).until(() -> !cache.isNotFound(42));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // Act
+        for (int id = 0; id < 10_000; id++) {
+            filter.put(id);
+        }
+
+        // Assert
+        int falsePositives = 0;
+        for (int id = 0; id < 10_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+            if (filter.mightContain(1_000_000 + id)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
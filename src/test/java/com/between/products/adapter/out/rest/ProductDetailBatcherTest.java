@@ -0,0 +1,108 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDetailBatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void pendingLoadsAreDispatchedWhenWindowElapses() {
+        // Arrange
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        ProductDetailBatcher batcher = new ProductDetailBatcher(Duration.ofMillis(5), 10, ids -> {
+            batches.add(ids);
+            return Mono.just(ids.stream().collect(Collectors.toMap(id -> id, ProductFixtures::product)));
+        }, id -> Mono.error(new AssertionError("single call")), meterRegistry, scheduler);
+
+        // Act
+        CompletableFuture<Product> first = batcher.load(1);
+        CompletableFuture<Product> second = batcher.load(2);
+        CompletableFuture<Product> duplicate = batcher.load(1);
+        scheduler.advanceTimeBy(Duration.ofMillis(4));
+        assertThat(batches).isEmpty();
+        scheduler.advanceTimeBy(Duration.ofMillis(1));
+
+        // Assert
+        assertThat(batches).containsExactly(List.of(1, 2));
+        assertThat(first.join().getId()).isEqualTo("1");
+        assertThat(second.join().getId()).isEqualTo("2");
+        assertThat(duplicate).isSameAs(first);
+        assertThat(meterRegistry.get("product.api.batch.size").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledPendingLoadIsReplaced() {
+        // Arrange
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        ProductDetailBatcher batcher = new ProductDetailBatcher(Duration.ofMillis(5), 10, ids -> {
+            batches.add(ids);
+            return Mono.just(ids.stream().collect(Collectors.toMap(id -> id, ProductFixtures::product)));
+        }, id -> Mono.error(new AssertionError("single call")), meterRegistry, scheduler);
+
+        // Act
+        CompletableFuture<Product> cancelled = batcher.load(1);
+        cancelled.cancel(true);
+        CompletableFuture<Product> reloaded = batcher.load(1);
+        scheduler.advanceTimeBy(Duration.ofMillis(5));
+
+        // Assert
+        assertThat(reloaded).isNotSameAs(cancelled);
+        assertThat(reloaded.join().getId()).isEqualTo("1");
+        assertThat(batches).containsExactly(List.of(1));
+    }
+
+    @Test
+    void failedBatchFailsEveryPendingLoad() {
+        // Arrange
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        ProductDetailBatcher batcher = new ProductDetailBatcher(Duration.ofMillis(5), 10,
+                ids -> Mono.error(new IllegalStateException("upstream down")),
+                id -> Mono.error(new AssertionError("single call")), meterRegistry, scheduler);
+
+        // Act
+        CompletableFuture<Product> first = batcher.load(1);
+        CompletableFuture<Product> second = batcher.load(2);
+        scheduler.advanceTimeBy(Duration.ofMillis(5));
+
+        // Assert
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(batcher.isBatchSupported()).isTrue();
+    }
+
+    @Test
+    void unsupportedBatchSwitchesToSingleCalls() {
+        // Arrange
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        ProductDetailBatcher batcher = new ProductDetailBatcher(Duration.ofMillis(5), 10,
+                ids -> Mono.error(new ProductDetailBatcher.UnsupportedBatchException("404")),
+                id -> Mono.just(product(id)), meterRegistry, scheduler);
+
+        // Act
+        CompletableFuture<Product> batched = batcher.load(1);
+        scheduler.advanceTimeBy(Duration.ofMillis(5));
+        CompletableFuture<Product> single = batcher.load(2);
+
+        // Assert
+        assertThat(batched.join().getId()).isEqualTo("1");
+        assertThat(single.join().getId()).isEqualTo("2");
+        assertThat(batcher.isBatchSupported()).isFalse();
+    }
+}
@@ -1,7 +1,13 @@
 package com.between.products.adapter.out.rest;
 
+import com.between.products.application.config.CacheConfig;
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductDetailChangedEvent;
 import com.between.products.domain.product.ProductNotFoundException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,12 +15,21 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.eq;
@@ -43,22 +58,46 @@ public class ProductOutServiceTest {
     @Mock
     private Cache cache;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private ProductOutService productOutService;
 
     @BeforeEach
     void setUp() {
+        productOutService = createProductOutService(Duration.ofMinutes(5));
+    }
+
+    private ProductOutService createProductOutService(Duration refreshAfterWrite) {
+        return createProductOutService(refreshAfterWrite, new SimpleMeterRegistry());
+    }
+
+    private ProductOutService createProductOutService(Duration refreshAfterWrite, SimpleMeterRegistry meterRegistry) {
         when(webClientBuilder.baseUrl(anyString())).thenReturn(webClientBuilder);
         when(webClientBuilder.clientConnector(any())).thenReturn(webClientBuilder);
+        when(webClientBuilder.filter(any())).thenReturn(webClientBuilder);
         when(webClientBuilder.build()).thenReturn(webClient);
 
-        productOutService = new ProductOutService(
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "productDetail", CacheProperties.Spec.ofSize(Duration.ofMinutes(30), refreshAfterWrite, 1000),
+                "productNotFound", CacheProperties.Spec.ofSize(Duration.ofMinutes(1), null, 1000)));
+        CaffeineCacheFactory caffeineCacheFactory = new CaffeineCacheFactory(cacheProperties, meterRegistry);
+
+        return new ProductOutService(
                 webClientBuilder,
                 cacheManager,
+                caffeineCacheFactory,
+                new NegativeProductCache(caffeineCacheFactory, cacheProperties, meterRegistry, 0.01),
+                eventPublisher,
+                new RequestHedger(false, 0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 10, meterRegistry),
+                new AdaptiveConcurrencyLimiter(true, 20, 4, 200, 200, Duration.ofMillis(500), meterRegistry),
+                mock(ClientHttpConnector.class),
+                meterRegistry,
                 "http://example.com",
-                1000,
-                2000,
-                3000,
-                4000
+                false,
+                "/products",
+                Duration.ofMillis(2),
+                50
         );
     }
 
@@ -69,7 +108,7 @@ public class ProductOutServiceTest {
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToFlux(Integer.class)).thenReturn(Flux.just(1, 2, 3));
+        when(responseSpec.bodyToMono(int[].class)).thenReturn(Mono.just(new int[]{1, 2, 3}));
 
         Flux<Integer> result = productOutService.getProductSimilarIds(1);
 
@@ -84,7 +123,7 @@ public class ProductOutServiceTest {
         when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToFlux(Integer.class)).thenReturn(Flux.error(new ProductNotFoundException(1)));
+        when(responseSpec.bodyToMono(int[].class)).thenReturn(Mono.error(new ProductNotFoundException(1)));
 
         Flux<Integer> result = productOutService.getProductSimilarIds(1);
 
@@ -93,6 +132,50 @@ public class ProductOutServiceTest {
                 .verify();
     }
 
+    @Test
+    void testGetProductSimilarIds_CachedAsIntArray() {
+        CaffeineCache similarIdsCache = new CaffeineCache(CacheConfig.SIMILAR_IDS, Caffeine.newBuilder().buildAsync(), false);
+        when(cacheManager.getCache(CacheConfig.SIMILAR_IDS)).thenReturn(similarIdsCache);
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(int[].class)).thenReturn(Mono.just(new int[]{1, 2, 3}));
+
+        StepVerifier.create(productOutService.getProductSimilarIds(1))
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+        StepVerifier.create(productOutService.getProductSimilarIds(1))
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+
+        verify(webClient, times(1)).get();
+        assertThat(similarIdsCache.getAsyncCache().synchronous().getIfPresent(1)).isEqualTo(new int[]{1, 2, 3});
+    }
+
+    @Test
+    void testGetProductSimilarIds_LateCallerRetriesLoadCancelledByLastWaiter() {
+        CaffeineCache similarIdsCache = spy(new CaffeineCache(CacheConfig.SIMILAR_IDS, Caffeine.newBuilder().buildAsync(), false));
+        when(cacheManager.getCache(CacheConfig.SIMILAR_IDS)).thenReturn(similarIdsCache);
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(int[].class)).thenReturn(Mono.never(), Mono.just(new int[]{1, 2, 3}));
+        Disposable lastWaiter = productOutService.getProductSimilarIds(1).subscribe();
+        doAnswer(invocation -> {
+            Object load = invocation.callRealMethod();
+            lastWaiter.dispose();
+            return load;
+        }).when(similarIdsCache).retrieve(eq(1), any());
+
+        StepVerifier.create(productOutService.getProductSimilarIds(1))
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+
+        verify(webClient, times(2)).get();
+    }
+
     @Test
     void testGetProductDetail_Success() {
         Product product = Product.builder()
@@ -129,6 +212,27 @@ public class ProductOutServiceTest {
                 .verify();
     }
 
+    @Test
+    void testGetProductDetail_NotFoundIsNegativelyCached() {
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(Product.class)).thenReturn(Mono.error(new ProductNotFoundException(1)));
+
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        StepVerifier.create(productOutService.getProductSimilarIds(1))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+
+        verify(webClient, times(1)).get();
+    }
+
     @Test
     void testGetProductSimilarIdsFallback() {
         when(cacheManager.getCache(anyString())).thenReturn(cache);
@@ -144,14 +248,104 @@ public class ProductOutServiceTest {
 
     @Test
     void testGetProductDetailFallback() {
-        when(cacheManager.getCache(anyString())).thenReturn(cache);
-
         WebClientRequestException webClientRequestException = mock(WebClientRequestException.class);
         Mono<Product> result = productOutService.getProductDetailFallback(1, webClientRequestException);
 
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(cache).put(eq(1), any());
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void testGetProductDetail_ServedFromCache() {
+        Product product = Product.builder()
+                .id("1")
+                .name("Product 1")
+                .build();
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(Product.class)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(product)
+                .verifyComplete();
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(product)
+                .verifyComplete();
+
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    void testGetProductDetail_ServesStaleValueWhileRefreshing() throws InterruptedException {
+        productOutService = createProductOutService(Duration.ofMillis(1));
+
+        Product stale = Product.builder()
+                .id("1")
+                .name("Stale")
+                .build();
+        Product fresh = Product.builder()
+                .id("1")
+                .name("Fresh")
+                .build();
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(Product.class)).thenReturn(Mono.just(stale), Mono.just(fresh).delayElement(Duration.ofMillis(100)));
+
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(stale)
+                .verifyComplete();
+
+        Thread.sleep(5);
+
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(stale)
+                .verifyComplete();
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                StepVerifier.create(productOutService.getProductDetail(1))
+                        .expectNext(fresh)
+                        .verifyComplete());
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                verify(eventPublisher).publishEvent(new ProductDetailChangedEvent(1)));
+    }
+
+    @Test
+    void testGetProductDetail_UnchangedRefreshDoesNotPublishChange() throws InterruptedException {
+        productOutService = createProductOutService(Duration.ofMillis(1));
+
+        Product product = Product.builder()
+                .id("1")
+                .name("Product 1")
+                .build();
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(Product.class)).thenAnswer(invocation -> Mono.just(Product.builder()
+                .id("1")
+                .name("Product 1")
+                .build()));
+
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(product)
+                .verifyComplete();
+
+        Thread.sleep(5);
+        StepVerifier.create(productOutService.getProductDetail(1))
+                .expectNext(product)
+                .verifyComplete();
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> verify(webClient, times(2)).get());
+        Thread.sleep(50);
+        verifyNoInteractions(eventPublisher);
     }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.application.config.ProductApiClientConfig;
+import com.between.products.application.config.ProductApiConnectionLifecycle;
+import com.between.products.application.config.ProductApiHttpProperties;
+import com.between.products.application.config.ProductApiPoolProperties;
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductApiUnavailableException;
+import com.between.products.domain.product.ProductNotFoundException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductOutServiceUpstreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UpstreamStub upstream;
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+    }
+
+    private ProductOutService createProductOutService(boolean batchEnabled, int batchMaxSize) {
+        return createProductOutService(batchEnabled, batchMaxSize, new ReactorClientHttpConnector());
+    }
+
+    private ProductOutService createProductOutService(boolean batchEnabled, int batchMaxSize, ClientHttpConnector connector) {
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "productDetail", CacheProperties.Spec.ofSize(Duration.ofMinutes(30), null, 1000),
+                "productNotFound", CacheProperties.Spec.ofSize(Duration.ofMinutes(1), null, 1000)));
+        CaffeineCacheFactory caffeineCacheFactory = new CaffeineCacheFactory(cacheProperties, meterRegistry);
+
+        return new ProductOutService(
+                WebClient.builder(),
+                new ConcurrentMapCacheManager(),
+                caffeineCacheFactory,
+                new NegativeProductCache(caffeineCacheFactory, cacheProperties, meterRegistry, 0.01),
+                mock(ApplicationEventPublisher.class),
+                new RequestHedger(false, 0.95, Duration.ofMillis(10), Duration.ofSeconds(1), 10, meterRegistry),
+                new AdaptiveConcurrencyLimiter(true, 20, 4, 200, 200, Duration.ofMillis(500), meterRegistry),
+                connector,
+                meterRegistry,
+                upstream.baseUrl(),
+                batchEnabled,
+                "/products",
+                Duration.ofMillis(200),
+                batchMaxSize
+        );
+    }
+
+    // Loads the ids concurrently, as the similar-products fan-out does, leaving out those that fail.
+    private static Mono<Map<Integer, Product>> getProductDetails(ProductOutService productOutService, List<Integer> productIds) {
+        return Flux.fromIterable(productIds)
+                .flatMap(productId -> productOutService.getProductDetail(productId).onErrorResume(e -> Mono.empty()))
+                .collectMap(product -> Integer.valueOf(product.getId()));
+    }
+
+    @Test
+    void concurrentDetailRequestsAreDispatchedAsOneBatch() {
+        // Arrange
+        upstream = UpstreamStub.start(true).withProducts(1, 40);
+        ProductOutService productOutService = createProductOutService(true, 50);
+
+        // Act
+        Flux<Product> result = Flux.range(1, 40).flatMap(productOutService::getProductDetail);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNextCount(40)
+                .verifyComplete();
+        assertThat(upstream.batches()).hasSize(1);
+        assertThat(upstream.batches().get(0)).hasSize(40);
+        assertThat(upstream.singleCalls()).isZero();
+    }
+
+    @Test
+    void concurrentCallersForOneProductShareOneUpstreamCall() {
+        // Arrange
+        upstream = UpstreamStub.start(false, Duration.ofMillis(200)).withProducts(1, 1);
+        ProductOutService productOutService = createProductOutService(false, 50);
+
+        // Act
+        Flux<Product> result = Flux.range(0, 10).flatMap(i -> productOutService.getProductDetail(1));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNextCount(10)
+                .verifyComplete();
+        assertThat(upstream.singleCalls()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.api.upstream.calls").tag("operation", "productDetail").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("product.api.upstream.coalesced").tag("operation", "productDetail").counter().count())
+                .isEqualTo(9);
+    }
+
+    @Test
+    void batchesAreSplitAtMaxBatchSize() {
+        // Arrange
+        upstream = UpstreamStub.start(true).withProducts(1, 25);
+        ProductOutService productOutService = createProductOutService(true, 10);
+
+        // Act
+        Map<Integer, Product> result = getProductDetails(productOutService, IntStream.rangeClosed(1, 25).boxed().toList())
+                .block();
+
+        // Assert
+        assertThat(result).hasSize(25);
+        assertThat(upstream.batches()).extracting(List::size).containsExactly(10, 10, 5);
+        assertThat(meterRegistry.get("product.api.upstream.calls").tag("operation", "productDetailBatch").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void idsMissingFromBatchAreLeftOutAndRememberedAsNotFound() {
+        // Arrange
+        upstream = UpstreamStub.start(true).withProducts(1, 3);
+        ProductOutService productOutService = createProductOutService(true, 50);
+
+        // Act
+        Map<Integer, Product> result = getProductDetails(productOutService, List.of(1, 2, 3, 99)).block();
+
+        // Assert
+        assertThat(result).containsOnlyKeys(1, 2, 3);
+        StepVerifier.create(productOutService.getProductDetail(99))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        assertThat(upstream.batches()).hasSize(1);
+    }
+
+    @Test
+    void batchEntriesWithUnexpectedIdsAreSkippedAndTheRestServed() {
+        // Arrange
+        upstream = UpstreamStub.start(true).withProducts(1, 3)
+                .withProduct(4, Product.builder().id("not-a-number").name("Product 4").build())
+                .withProduct(5, Product.builder().name("Product 5").build())
+                .withProduct(6, Product.builder().id("99").name("Product 99").build());
+        ProductOutService productOutService = createProductOutService(true, 50);
+
+        // Act
+        Map<Integer, Product> result = getProductDetails(productOutService, List.of(1, 2, 3, 4, 5, 6)).block();
+
+        // Assert
+        assertThat(result).containsOnlyKeys(1, 2, 3);
+        StepVerifier.create(productOutService.getProductDetail(4))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        assertThat(upstream.batches()).hasSize(1);
+    }
+
+    @Test
+    void unsupportedBatchEndpointFallsBackToParallelSingleCalls() {
+        // Arrange
+        upstream = UpstreamStub.start(false).withProducts(1, 20);
+        ProductOutService productOutService = createProductOutService(true, 50);
+
+        // Act
+        Map<Integer, Product> first = getProductDetails(productOutService, IntStream.rangeClosed(1, 10).boxed().toList()).block();
+        Map<Integer, Product> second = getProductDetails(productOutService, IntStream.rangeClosed(11, 20).boxed().toList()).block();
+
+        // Assert
+        assertThat(first).hasSize(10);
+        assertThat(second).hasSize(10);
+        assertThat(upstream.singleCalls()).isEqualTo(20);
+    }
+
+    @Test
+    void batchingDisabledSendsSingleCalls() {
+        // Arrange
+        upstream = UpstreamStub.start(true).withProducts(1, 5);
+        ProductOutService productOutService = createProductOutService(false, 50);
+
+        // Act
+        Map<Integer, Product> result = getProductDetails(productOutService, List.of(1, 2, 3, 4, 5)).block();
+
+        // Assert
+        assertThat(result).hasSize(5);
+        assertThat(upstream.singleCalls()).isEqualTo(5);
+        assertThat(upstream.batches()).isEmpty();
+    }
+
+    @Test
+    void exhaustedConnectionPoolFailsWithProductApiUnavailable() {
+        // Arrange
+        upstream = UpstreamStub.start(true, Duration.ofSeconds(1)).withProducts(1, 2);
+        ProductApiClientConfig clientConfig = new ProductApiClientConfig();
+        ProductApiHttpProperties http = new ProductApiHttpProperties(ProductApiHttpProperties.Version.HTTP_1_1, null);
+        ConnectionProvider connectionProvider = clientConfig.productApiConnectionProvider(new ProductApiPoolProperties(
+                "exhausted-pool-test", 1, 10, Duration.ofMillis(100),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO, true), http);
+        ProductOutService productOutService = createProductOutService(false, 50,
+                clientConfig.productApiClientHttpConnector(connectionProvider, http, 1000, 2000, 2000, 2000));
+
+        // Act
+        Flux<Product> result = Flux.merge(
+                productOutService.getProductDetail(1),
+                Mono.delay(Duration.ofMillis(50)).then(productOutService.getProductDetail(2)));
+
+        // Assert
+        try {
+            StepVerifier.create(result)
+                    .expectError(ProductApiUnavailableException.class)
+                    .verify(Duration.ofSeconds(5));
+            assertThat(Metrics.globalRegistry.find("reactor.netty.connection.provider.active.connections")
+                    .tag("name", "exhausted-pool-test")
+                    .gauge()).isNotNull();
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    @Test
+    void h2cMultiplexesConcurrentDetailCallsOverFewConnections() {
+        // Arrange
+        upstream = UpstreamStub.start(false, Duration.ofMillis(200)).withProducts(1, 40);
+        ProductApiClientConfig clientConfig = new ProductApiClientConfig();
+        ProductApiHttpProperties http = new ProductApiHttpProperties(
+                ProductApiHttpProperties.Version.H2C, new ProductApiHttpProperties.H2(2, 100));
+        ConnectionProvider connectionProvider = clientConfig.productApiConnectionProvider(new ProductApiPoolProperties(
+                "h2c-test", 200, 400, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO, false), http);
+        ProductOutService productOutService = createProductOutService(false, 50,
+                clientConfig.productApiClientHttpConnector(connectionProvider, http, 1000, 5000, 5000, 5000));
+        // Opens the first connection, so the HTTP/2 codec is warm before the fan-out starts.
+        productOutService.getProductDetail(1).block(Duration.ofSeconds(5));
+
+        // Act
+        Map<Integer, Product> result = getProductDetails(productOutService, IntStream.rangeClosed(2, 21).boxed().toList())
+                .block(Duration.ofSeconds(5));
+
+        // Assert
+        try {
+            assertThat(result).hasSize(20);
+            assertThat(upstream.detailProtocols()).containsExactly("HTTP/2.0");
+            assertThat(upstream.detailConnections()).isLessThanOrEqualTo(2);
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    @Test
+    void stoppingClosesPooledConnectionsAndThePoolReconnectsAfterRestart() {
+        // Arrange
+        upstream = UpstreamStub.start(false).withProducts(1, 2);
+        ProductApiClientConfig clientConfig = new ProductApiClientConfig();
+        ProductApiHttpProperties http = new ProductApiHttpProperties(ProductApiHttpProperties.Version.HTTP_1_1, null);
+        ConnectionProvider connectionProvider = clientConfig.productApiConnectionProvider(new ProductApiPoolProperties(
+                "restart-test", 10, 10, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO, false), http);
+        ProductApiConnectionLifecycle lifecycle = clientConfig.productApiConnectionLifecycle(connectionProvider);
+        ProductOutService productOutService = createProductOutService(false, 50,
+                clientConfig.productApiClientHttpConnector(connectionProvider, http, 1000, 2000, 2000, 2000));
+        lifecycle.start();
+        productOutService.getProductDetail(1).block(Duration.ofSeconds(5));
+
+        // Act
+        lifecycle.stop();
+        lifecycle.start();
+        Product product = productOutService.getProductDetail(2).block(Duration.ofSeconds(5));
+
+        // Assert
+        try {
+            assertThat(product).isNotNull();
+            assertThat(upstream.detailConnections()).isEqualTo(2);
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+}
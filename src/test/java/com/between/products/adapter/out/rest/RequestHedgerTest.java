@@ -0,0 +1,193 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.ProductNotFoundException;
+import com.between.products.domain.product.ProductRequestException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestHedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private RequestHedger hedger(double budgetPercent) {
+        return new RequestHedger(true, 0.95, Duration.ofMillis(5), Duration.ofSeconds(1), budgetPercent, meterRegistry);
+    }
+
+    private static void warmUp(RequestHedger hedger) {
+        for (int i = 0; i < 128; i++) {
+            hedger.recordLatency(Duration.ofMillis(1).toNanos());
+        }
+    }
+
+    @Test
+    void callsAreNotHedgedUntilEnoughLatenciesAreObserved() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        StepVerifier.create(hedger.execute(() -> Mono.delay(Duration.ofMillis(50))
+                        .doOnSubscribe(s -> calls.incrementAndGet())
+                        .thenReturn("product")))
+                .expectNext("product")
+                .verifyComplete();
+
+        // Assert
+        assertThat(hedger.getHedgeDelay()).isNull();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void slowCallIsHedgedAndFasterHedgeWins() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).thenReturn("primary")
+                : Mono.just("hedge");
+
+        // Act
+        StepVerifier.create(hedger.execute(call))
+                .expectNext("hedge")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        // Assert
+        assertThat(hedger.getHedgeDelay()).isEqualTo(Duration.ofMillis(5));
+        assertThat(meterRegistry.get("product.api.hedge.sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.api.hedge.won").counter().count()).isEqualTo(1);
+        // Both the winning hedge and the cancelled primary are recorded.
+        assertThat(hedger.getSampleCount()).isEqualTo(130);
+    }
+
+    @Test
+    void retryableErrorOfPrimaryLeavesSentHedgeToAnswer() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(20)).then(Mono.error(new ProductRequestException(1, HttpStatus.BAD_GATEWAY)))
+                : Mono.delay(Duration.ofMillis(50)).thenReturn("hedge");
+
+        // Act & Assert
+        StepVerifier.create(hedger.execute(call))
+                .expectNext("hedge")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("product.api.hedge.won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void callFailsWhenBothCopiesFail() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(20)).then(Mono.error(new ProductRequestException(1, HttpStatus.BAD_GATEWAY)))
+                : Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException("connection reset")));
+
+        // Act & Assert
+        StepVerifier.create(hedger.execute(call))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void nonRetryableErrorOfPrimaryEndsTheCall() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(20)).then(Mono.error(new ProductNotFoundException(1)))
+                : Mono.delay(Duration.ofSeconds(5)).thenReturn("hedge");
+
+        // Act & Assert
+        StepVerifier.create(hedger.execute(call))
+                .expectError(ProductNotFoundException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("product.api.hedge.sent").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void nonRetryableErrorOfHedgeEndsTheCall() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).thenReturn("primary")
+                : Mono.error(new ProductNotFoundException(1));
+
+        // Act & Assert
+        StepVerifier.create(hedger.execute(call))
+                .expectError(ProductNotFoundException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("product.api.hedge.sent").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedHedgeLeavesPrimaryToAnswer() {
+        // Arrange
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<String>> call = () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(50)).thenReturn("primary")
+                : Mono.error(new ProductRequestException(1, HttpStatus.BAD_GATEWAY));
+
+        // Act & Assert
+        StepVerifier.create(hedger.execute(call))
+                .expectNext("primary")
+                .verifyComplete();
+        assertThat(meterRegistry.get("product.api.hedge.won").counter().count()).isZero();
+    }
+
+    @Test
+    void hedgesStayWithinBudget() {
+        // Arrange
+        RequestHedger hedger = hedger(10);
+        warmUp(hedger);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            StepVerifier.create(hedger.execute(() -> Mono.delay(Duration.ofMillis(20))
+                            .doOnSubscribe(s -> calls.incrementAndGet())
+                            .thenReturn("product")))
+                    .expectNext("product")
+                    .verifyComplete();
+        }
+
+        // Assert
+        assertThat(meterRegistry.get("product.api.hedge.sent").counter().count()).isEqualTo(2);
+        assertThat(calls).hasValue(22);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new RequestHedger(true, 1.0, Duration.ZERO, Duration.ofSeconds(1), 10, meterRegistry));
+        assertThrows(IllegalArgumentException.class, () ->
+                new RequestHedger(true, 0.95, Duration.ZERO, Duration.ofSeconds(1), 150, meterRegistry));
+    }
+}
@@ -0,0 +1,161 @@
+package com.between.products.adapter.out.rest;
+
+import com.between.products.domain.product.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.math.BigDecimal;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the upstream product API, so the HTTP adapter can be exercised offline.
+ * Serves {@code /product/{id}}, {@code /product/{id}/similarids} and, when enabled, the batch
+ * endpoint {@code /products?ids=1,2,3}, and records what it was asked for. Detail responses are
+ * held back by {@code latency}; similar ids are answered immediately. Accepts HTTP/1.1 and
+ * cleartext HTTP/2 (h2c with prior knowledge) on the same port.
+ */
+public class UpstreamStub implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, Product> products = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Integer>> similarIds = new ConcurrentHashMap<>();
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final AtomicInteger activeDetailCalls = new AtomicInteger();
+    private final Set<SocketAddress> detailCallers = ConcurrentHashMap.newKeySet();
+    private final Set<String> detailProtocols = ConcurrentHashMap.newKeySet();
+    private final boolean batchSupported;
+    private final Duration latency;
+    private final DisposableServer server;
+
+    private UpstreamStub(boolean batchSupported, Duration latency) {
+        this.batchSupported = batchSupported;
+        this.latency = latency;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes
+                        .get("/product/{id}/similarids", (request, response) ->
+                                respond(response, similarIds.get(Integer.valueOf(request.param("id"))), Duration.ZERO))
+                        .get("/product/{id}", (request, response) -> {
+                            singleCalls.incrementAndGet();
+                            detailCallers.add(request.remoteAddress());
+                            detailProtocols.add(request.version().text());
+                            return respond(response, products.get(Integer.valueOf(request.param("id"))), latency);
+                        })
+                        .get("/products", (request, response) -> {
+                            if (!batchSupported) {
+                                return response.status(HttpResponseStatus.NOT_FOUND).send();
+                            }
+                            List<Integer> ids = new QueryStringDecoder(request.uri()).parameters()
+                                    .getOrDefault("ids", List.of()).stream()
+                                    .flatMap(value -> Arrays.stream(value.split(",")))
+                                    .map(Integer::valueOf)
+                                    .toList();
+                            batches.add(ids);
+                            return respond(response, ids.stream().map(products::get).filter(Objects::nonNull).toList(), latency);
+                        }))
+                .bindNow();
+    }
+
+    public static UpstreamStub start(boolean batchSupported) {
+        return start(batchSupported, Duration.ZERO);
+    }
+
+    public static UpstreamStub start(boolean batchSupported, Duration latency) {
+        return new UpstreamStub(batchSupported, latency);
+    }
+
+    public UpstreamStub withProducts(int fromId, int toId) {
+        for (int id = fromId; id <= toId; id++) {
+            products.put(id, Product.builder()
+                    .id(String.valueOf(id))
+                    .name("Product " + id)
+                    .price(BigDecimal.valueOf(id))
+                    .availability(id % 2 == 0)
+                    .build());
+        }
+        return this;
+    }
+
+    /** Answers requests for {@code id} with {@code product}, whatever id the product itself carries. */
+    public UpstreamStub withProduct(int id, Product product) {
+        products.put(id, product);
+        return this;
+    }
+
+    public UpstreamStub withSimilarIds(int productId, List<Integer> ids) {
+        similarIds.put(productId, ids);
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    public List<List<Integer>> batches() {
+        return batches;
+    }
+
+    public int singleCalls() {
+        return singleCalls.get();
+    }
+
+    /** Client connections that detail requests arrived on, identified by their remote address. */
+    public int detailConnections() {
+        return detailCallers.size();
+    }
+
+    /** HTTP versions of the detail requests, e.g. {@code HTTP/1.1} or {@code HTTP/2.0}. */
+    public Set<String> detailProtocols() {
+        return detailProtocols;
+    }
+
+    /** Detail requests the stub is still working on; drops as soon as the client closes the connection. */
+    public int activeDetailCalls() {
+        return activeDetailCalls.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, Object body, Duration delay) {
+        if (body == null) {
+            return response.status(HttpResponseStatus.NOT_FOUND).send();
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            Mono<Void> send = response.header("Content-Type", "application/json")
+                    .sendByteArray(Mono.just(json))
+                    .then();
+            if (delay.isZero()) {
+                return send;
+            }
+            return Mono.delay(delay)
+                    .doFirst(activeDetailCalls::incrementAndGet)
+                    .doFinally(signal -> activeDetailCalls.decrementAndGet())
+                    .then(send);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
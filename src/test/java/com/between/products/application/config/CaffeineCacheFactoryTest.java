@@ -0,0 +1,132 @@
+package com.between.products.application.config;
+
+import com.between.products.domain.product.Product;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CaffeineCacheFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void weightBoundedCacheEvictsOnceBudgetIsExceeded() {
+        // Arrange
+        CaffeineCacheFactory factory = new CaffeineCacheFactory(new CacheProperties(Map.of(
+                "productDetail", CacheProperties.Spec.ofWeight(Duration.ofMinutes(10), null, DataSize.ofKilobytes(16)))), meterRegistry);
+        Cache<Object, Object> cache = factory.newBuilder("productDetail").build();
+
+        // Act
+        for (int id = 0; id < 1000; id++) {
+            cache.put(id, product(id));
+        }
+        cache.cleanUp();
+
+        // Assert
+        long weight = cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertThat(weight).isLessThanOrEqualTo(DataSize.ofKilobytes(16).toBytes());
+        assertThat(cache.estimatedSize()).isBetween(1L, 999L);
+    }
+
+    @Test
+    void sizeBoundedCacheUsesEntryCount() {
+        // Arrange
+        CaffeineCacheFactory factory = new CaffeineCacheFactory(new CacheProperties(Map.of(
+                "similarIds", CacheProperties.Spec.ofSize(Duration.ofMinutes(10), null, 10))), meterRegistry);
+        Cache<Object, Object> cache = factory.newBuilder("similarIds").build();
+
+        // Act
+        for (int id = 0; id < 100; id++) {
+            cache.put(id, List.of(1, 2, 3));
+        }
+        cache.cleanUp();
+
+        // Assert
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void builtCachesExportStatsAndLoadLatency() {
+        // Arrange
+        CaffeineCacheFactory factory = new CaffeineCacheFactory(new CacheProperties(Map.of(
+                "productDetail", CacheProperties.Spec.ofSize(Duration.ofMinutes(10), null, 10))), meterRegistry);
+        AsyncLoadingCache<Integer, String> cache = factory.buildAsync("productDetail",
+                (key, executor) -> CompletableFuture.completedFuture("value-" + key));
+
+        // Act
+        cache.get(1).join();
+        cache.get(1).join();
+
+        // Assert
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productDetail").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "productDetail").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        Timer loadLatency = meterRegistry.get("cache.load.latency").tag("cache", "productDetail")
+                .tag("result", "success").timer();
+        assertThat(loadLatency.count()).isEqualTo(1);
+    }
+
+    @Test
+    void specRequiresExactlyOneBound() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CacheProperties.Spec(Duration.ofMinutes(1), null, 10L, DataSize.ofMegabytes(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CacheProperties.Spec(Duration.ofMinutes(1), null, null, null));
+    }
+
+    @Test
+    void missingSpecFailsFast() {
+        CaffeineCacheFactory factory = new CaffeineCacheFactory(new CacheProperties(Map.of()), meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> factory.newBuilder("productDetail"));
+    }
+
+    @Test
+    void weigherGrowsWithProductContent() {
+        // Arrange
+        CacheEntryWeigher weigher = new CacheEntryWeigher();
+
+        // Act
+        int small = weigher.weigh(1, product(1));
+        int large = weigher.weigh(1, Product.builder()
+                .id("1")
+                .name("x".repeat(1000))
+                .price(BigDecimal.TEN)
+                .availability(true)
+                .build());
+
+        // Assert
+        assertThat(small).isGreaterThan(CacheEntryWeigher.ENTRY_OVERHEAD);
+        assertThat(large - small).isGreaterThanOrEqualTo(980);
+    }
+
+    @Test
+    void weigherCountsSimilarIdsAsPrimitiveArray() {
+        // Arrange
+        CacheEntryWeigher weigher = new CacheEntryWeigher();
+        int[] similarIds = IntStream.rangeClosed(1, 100).map(id -> id * 1000).toArray();
+
+        // Act
+        int primitive = weigher.weigh(1, similarIds);
+        int boxed = weigher.weigh(1, IntStream.of(similarIds).boxed().toList());
+
+        // Assert
+        assertThat(primitive - CacheEntryWeigher.ENTRY_OVERHEAD).isBetween(400, 440);
+        assertThat(boxed).isGreaterThan(4 * primitive);
+    }
+}
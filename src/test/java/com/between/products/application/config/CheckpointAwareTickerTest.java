@@ -0,0 +1,54 @@
+package com.between.products.application.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckpointAwareTickerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(1_000);
+    private final AtomicLong currentTimeMillis = new AtomicLong(1_000_000);
+    private final CheckpointAwareTicker ticker = new CheckpointAwareTicker(nanoTime::get, currentTimeMillis::get);
+
+    @Test
+    void restoreAddsTheTimeSpentCheckpointed() {
+        // Arrange
+        ticker.checkpoint();
+        long atCheckpoint = ticker.read();
+
+        // Act
+        currentTimeMillis.addAndGet(TimeUnit.HOURS.toMillis(2));
+        ticker.restore();
+
+        // Assert
+        assertThat(ticker.read() - atCheckpoint).isEqualTo(TimeUnit.HOURS.toNanos(2));
+    }
+
+    @Test
+    void restoreDoesNotCountTimeNanoTimeAlreadyShows() {
+        // Arrange
+        ticker.checkpoint();
+        long atCheckpoint = ticker.read();
+
+        // Act
+        currentTimeMillis.addAndGet(TimeUnit.MINUTES.toMillis(5));
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        ticker.restore();
+
+        // Assert
+        assertThat(ticker.read() - atCheckpoint).isEqualTo(TimeUnit.MINUTES.toNanos(5));
+    }
+
+    @Test
+    void startWithoutCheckpointKeepsNanoTime() {
+        // Act
+        currentTimeMillis.addAndGet(TimeUnit.HOURS.toMillis(1));
+        ticker.restore();
+
+        // Assert
+        assertThat(ticker.read()).isEqualTo(nanoTime.get());
+    }
+}
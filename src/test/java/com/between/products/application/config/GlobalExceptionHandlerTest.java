@@ -1,6 +1,7 @@
 package com.between.products.application.config;
 
 import com.between.products.domain.error.ErrorResponse;
+import com.between.products.domain.product.ProductApiUnavailableException;
 import com.between.products.domain.product.ProductNotFoundException;
 import com.between.products.domain.product.ProductRequestException;
 import org.junit.jupiter.api.Test;
@@ -57,6 +58,22 @@ public class GlobalExceptionHandlerTest {
         assertThat(errorResponse.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
 
+    @Test
+    public void handleProductApiUnavailableExceptionReturns503() {
+        // Arrange
+        ProductApiUnavailableException exception =
+                new ProductApiUnavailableException("No product API connection available", new IllegalStateException());
+
+        // Act
+        ResponseEntity<ErrorResponse> responseEntity =
+                globalExceptionHandler.handleProductApiUnavailableException(exception);
+
+        // Assert
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(responseEntity.getBody()).isNotNull();
+        assertThat(responseEntity.getBody().getError()).isEqualTo("No product API connection available");
+    }
+
     @Test
     public void handleMethodArgumentNotValidExceptionReturns400() {
         // Arrange
@@ -0,0 +1,84 @@
+package com.between.products.application.config;
+
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class GrpcServerEventLoopsTest {
+
+    private final GrpcServerEventLoops eventLoops = new GrpcServerEventLoops();
+
+    @Test
+    void stopShutsDownTheLoopsAndStartUsesNewOnes() {
+        // Arrange
+        NettyServerBuilder serverBuilder = mock(NettyServerBuilder.class, RETURNS_SELF);
+        eventLoops.start();
+        eventLoops.accept(serverBuilder);
+
+        // Act
+        eventLoops.stop();
+        eventLoops.start();
+        eventLoops.accept(serverBuilder);
+
+        // Assert
+        ArgumentCaptor<EventLoopGroup> workers = ArgumentCaptor.forClass(EventLoopGroup.class);
+        verify(serverBuilder, times(2)).workerEventLoopGroup(workers.capture());
+        assertThat(workers.getAllValues().get(0).isTerminated()).isTrue();
+        assertThat(workers.getAllValues().get(1)).isNotSameAs(workers.getAllValues().get(0));
+        assertThat(workers.getAllValues().get(1).isShuttingDown()).isFalse();
+        eventLoops.stop();
+    }
+
+    @Test
+    void serverStartsAgainAfterRestart() throws IOException, InterruptedException {
+        // Arrange
+        eventLoops.start();
+        Server first = startServer();
+        first.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+
+        // Act
+        eventLoops.stop();
+        eventLoops.start();
+        Server second = startServer();
+
+        // Assert
+        try {
+            assertThat(second.isShutdown()).isFalse();
+            assertThat(second.getPort()).isPositive();
+        } finally {
+            second.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+            eventLoops.stop();
+        }
+    }
+
+    @Test
+    void inProcessServerIsLeftAlone() {
+        // Arrange
+        InProcessServerBuilder serverBuilder = mock(InProcessServerBuilder.class);
+
+        // Act
+        eventLoops.accept(serverBuilder);
+
+        // Assert
+        verifyNoInteractions(serverBuilder);
+    }
+
+    private Server startServer() throws IOException {
+        NettyServerBuilder serverBuilder = NettyServerBuilder.forPort(0);
+        eventLoops.accept(serverBuilder);
+        return serverBuilder.build().start();
+    }
+}
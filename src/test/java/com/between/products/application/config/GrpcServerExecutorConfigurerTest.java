@@ -0,0 +1,176 @@
+package com.between.products.application.config;
+
+import com.between.products.adapter.in.grpc.proto.GetProduct;
+import com.between.products.adapter.in.grpc.proto.ProductResponse;
+import com.between.products.adapter.in.grpc.proto.ProductServiceGrpc;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class GrpcServerExecutorConfigurerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServerBuilder<?> serverBuilder = mock(ServerBuilder.class);
+
+    @Test
+    void defaultKeepsTheServerExecutor() {
+        // Arrange
+        GrpcServerExecutorConfigurer configurer = configurer(GrpcExecutorProperties.Type.DEFAULT);
+
+        // Act
+        configurer.accept(serverBuilder);
+
+        // Assert
+        verifyNoInteractions(serverBuilder);
+    }
+
+    @Test
+    void directRunsCallsOnTheTransportThread() {
+        // Arrange
+        GrpcServerExecutorConfigurer configurer = configurer(GrpcExecutorProperties.Type.DIRECT);
+
+        // Act
+        configurer.accept(serverBuilder);
+
+        // Assert
+        verify(serverBuilder).directExecutor();
+    }
+
+    @Test
+    void virtualRunsEachTaskOnAVirtualThread() throws Exception {
+        // Arrange
+        GrpcServerExecutorConfigurer configurer = configurer(GrpcExecutorProperties.Type.VIRTUAL);
+
+        // Act
+        configurer.accept(serverBuilder);
+        Executor executor = capturedExecutor();
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+        // Assert
+        assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+        configurer.close();
+    }
+
+    @Test
+    void boundedPoolIsMeteredAndShutDownOnClose() {
+        // Arrange
+        GrpcServerExecutorConfigurer configurer = configurer(GrpcExecutorProperties.Type.BOUNDED);
+
+        // Act
+        configurer.accept(serverBuilder);
+        ArgumentCaptor<ServerCallExecutorSupplier> supplier = ArgumentCaptor.forClass(ServerCallExecutorSupplier.class);
+        verify(serverBuilder).directExecutor();
+        verify(serverBuilder).callExecutor(supplier.capture());
+        ExecutorService executor = (ExecutorService) supplier.getValue().getExecutor(mock(ServerCall.class), new Metadata());
+        configurer.close();
+
+        // Assert
+        assertThat(meterRegistry.get("executor.pool.max").tag("name", "grpc.server").gauge().value()).isEqualTo(2);
+        assertThat(executor.isShutdown()).isTrue();
+    }
+
+    @Test
+    void saturatedBoundedPoolRejectsNewCallsWithResourceExhausted() throws Exception {
+        // Arrange
+        GrpcServerExecutorConfigurer configurer = new GrpcServerExecutorConfigurer(
+                new GrpcExecutorProperties(GrpcExecutorProperties.Type.BOUNDED, 1, 1), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger invoked = new AtomicInteger();
+        InProcessServerBuilder builder = InProcessServerBuilder.forName("bounded-executor-test")
+                .addService(new ProductServiceGrpc.ProductServiceImplBase() {
+                    @Override
+                    public void getSimilarProducts(GetProduct request, StreamObserver<ProductResponse> responseObserver) {
+                        invoked.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        responseObserver.onNext(ProductResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                });
+        configurer.accept(builder);
+        Server server = builder.build().start();
+        ManagedChannel channel = InProcessChannelBuilder.forName("bounded-executor-test").build();
+
+        try {
+            // Act
+            ProductServiceGrpc.ProductServiceFutureStub stub = ProductServiceGrpc.newFutureStub(channel);
+            List<ListenableFuture<ProductResponse>> calls = IntStream.range(0, 4)
+                    .mapToObj(i -> stub.getSimilarProducts(GetProduct.getDefaultInstance()))
+                    .toList();
+            await().atMost(Duration.ofSeconds(5)).until(() -> calls.stream().filter(Future::isDone).count() >= 2);
+            release.countDown();
+            List<Status.Code> codes = new ArrayList<>();
+            for (ListenableFuture<ProductResponse> call : calls) {
+                try {
+                    call.get(5, TimeUnit.SECONDS);
+                    codes.add(Status.Code.OK);
+                } catch (ExecutionException e) {
+                    codes.add(Status.fromThrowable(e.getCause()).getCode());
+                }
+            }
+
+            // Assert
+            assertThat(codes).containsOnly(Status.Code.OK, Status.Code.RESOURCE_EXHAUSTED);
+            long rejected = codes.stream().filter(code -> code == Status.Code.RESOURCE_EXHAUSTED).count();
+            assertThat(rejected).isGreaterThanOrEqualTo(2);
+            assertThat(invoked).hasValue(4 - (int) rejected);
+            assertThat(meterRegistry.get("grpc.server.calls.rejected").counter().count()).isEqualTo(rejected);
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            configurer.close();
+        }
+    }
+
+    @Test
+    void rejectsEmptyBoundedPool() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new GrpcExecutorProperties(GrpcExecutorProperties.Type.BOUNDED, 0, 10));
+    }
+
+    private GrpcServerExecutorConfigurer configurer(GrpcExecutorProperties.Type type) {
+        return new GrpcServerExecutorConfigurer(new GrpcExecutorProperties(type, 2, 10), meterRegistry);
+    }
+
+    private Executor capturedExecutor() {
+        ArgumentCaptor<Executor> executor = ArgumentCaptor.forClass(Executor.class);
+        verify(serverBuilder).executor(executor.capture());
+        return executor.getValue();
+    }
+}
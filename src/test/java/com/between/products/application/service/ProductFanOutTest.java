@@ -0,0 +1,119 @@
+package com.between.products.application.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductFanOutTest {
+
+    @Test
+    void orderedModeKeepsSimilarIdsOrder() {
+        // Arrange
+        ProductFanOut fanOut = new ProductFanOut(4, true);
+
+        // Act
+        Flux<Integer> result = fanOut.fetch(0, Flux.just(3, 2, 1),
+                id -> Mono.just(id).delayElement(Duration.ofMillis(id * 20L)));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(3, 2, 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void unorderedModeEmitsAsSoonAsDetailsResolve() {
+        // Arrange
+        ProductFanOut fanOut = new ProductFanOut(4, false);
+
+        // Act
+        Flux<Integer> result = fanOut.fetch(0, Flux.just(3, 2, 1),
+                id -> Mono.just(id).delayElement(Duration.ofMillis(id * 20L)));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+    }
+
+    @Test
+    void removesDuplicateAndSelfIdsBeforeFetching() {
+        // Arrange
+        ProductFanOut fanOut = new ProductFanOut(4, true);
+        AtomicInteger fetches = new AtomicInteger();
+
+        // Act
+        Flux<Integer> result = fanOut.fetch(7, Flux.just(1, 7, 2, 1, 2),
+                id -> {
+                    fetches.incrementAndGet();
+                    return Mono.just(id);
+                });
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(1, 2)
+                .verifyComplete();
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void neverExceedsMaxConcurrency() {
+        // Arrange
+        ProductFanOut fanOut = new ProductFanOut(3, false);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // Act
+        Flux<Integer> result = fanOut.fetch(0, Flux.range(1, 20),
+                id -> Mono.just(id)
+                        .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .delayElement(Duration.ofMillis(5))
+                        .doOnNext(value -> inFlight.decrementAndGet()));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNextCount(20)
+                .verifyComplete();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void fetchAllFetchesEachIdOnceWithinBudget() {
+        // Arrange
+        ProductFanOut fanOut = new ProductFanOut(2, true);
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // Act
+        Mono<Map<Integer, Integer>> result = fanOut.fetchAll(List.of(1, 2, 2, 3, 1, 4),
+                id -> Mono.just(id * 10)
+                        .doOnSubscribe(s -> {
+                            fetches.incrementAndGet();
+                            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        })
+                        .delayElement(Duration.ofMillis(5))
+                        .doOnNext(value -> inFlight.decrementAndGet()));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(Map.of(1, 10, 2, 20, 3, 30, 4, 40))
+                .verifyComplete();
+        assertThat(fetches).hasValue(4);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void rejectsNonPositiveConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductFanOut(0, true));
+    }
+}
@@ -1,16 +1,27 @@
 package com.between.products.application.service;
 
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
 import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductNotFoundException;
+import com.between.products.domain.product.SimilarProducts;
 import com.between.products.port.out.rest.ProductOutPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
@@ -20,9 +31,18 @@ public class ProductServiceTest {
     @Mock
     private ProductOutPort productOutPort;
 
-    @InjectMocks
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "similarProducts", CacheProperties.Spec.ofSize(Duration.ofMinutes(5), null, 100)));
+        SimilarProductsCache similarProductsCache =
+                new SimilarProductsCache(new CaffeineCacheFactory(cacheProperties, new SimpleMeterRegistry()));
+        productService = new ProductService(productOutPort, new ProductFanOut(16, true), similarProductsCache,
+                Duration.ofSeconds(1));
+    }
+
     @Test
     void testGetSimilarProducts_Success() {
         Product product1 = Product.builder()
@@ -80,4 +100,131 @@ public class ProductServiceTest {
         verify(productOutPort).getProductDetail(1);
         verify(productOutPort).getProductDetail(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetSimilarProducts_SkipsDuplicateAndSelfIds() {
+        Product product1 = Product.builder()
+                .id("1")
+                .name("Product 1")
+                .build();
+
+        when(productOutPort.getProductSimilarIds(anyInt())).thenReturn(Flux.just(1, 123, 1));
+        when(productOutPort.getProductDetail(1)).thenReturn(Mono.just(product1));
+
+        Flux<Product> result = productService.getSimilarProducts("123");
+
+        StepVerifier.create(result)
+                .expectNext(product1)
+                .verifyComplete();
+
+        verify(productOutPort, times(1)).getProductDetail(1);
+        verify(productOutPort, never()).getProductDetail(123);
+    }
+
+    @Test
+    void testGetSimilarProducts_SecondCallServedFromMaterializedList() {
+        Product product1 = Product.builder()
+                .id("1")
+                .name("Product 1")
+                .build();
+
+        when(productOutPort.getProductSimilarIds(anyInt())).thenReturn(Flux.just(1));
+        when(productOutPort.getProductDetail(1)).thenReturn(Mono.just(product1));
+
+        StepVerifier.create(productService.getSimilarProducts("123"))
+                .expectNext(product1)
+                .verifyComplete();
+        StepVerifier.create(productService.getSimilarProducts("123"))
+                .expectNext(product1)
+                .verifyComplete();
+
+        verify(productOutPort, times(1)).getProductSimilarIds(123);
+        verify(productOutPort, times(1)).getProductDetail(1);
+    }
+
+    @Test
+    void testGetSimilarProductsBulk_FetchesSharedDetailsOnce() {
+        when(productOutPort.getProductSimilarIds(1)).thenReturn(Flux.just(3, 4));
+        when(productOutPort.getProductSimilarIds(2)).thenReturn(Flux.just(4, 5, 2));
+        when(productOutPort.getProductSimilarIds(9)).thenReturn(Flux.error(new ProductNotFoundException(9)));
+        when(productOutPort.getProductDetail(anyInt()))
+                .thenAnswer(invocation -> Mono.just(Product.builder().id(String.valueOf((Integer) invocation.getArgument(0))).build()));
+
+        Mono<Map<String, List<Product>>> result = productService.getSimilarProducts(List.of("1", "2", "9", "1"));
+
+        StepVerifier.create(result)
+                .assertNext(productsById -> {
+                    assertThat(productsById).containsOnlyKeys("1", "2");
+                    assertThat(productsById.get("1")).extracting(Product::getId).containsExactly("3", "4");
+                    assertThat(productsById.get("2")).extracting(Product::getId).containsExactly("4", "5");
+                })
+                .verifyComplete();
+
+        verify(productOutPort, times(1)).getProductDetail(4);
+        verify(productOutPort, times(3)).getProductDetail(anyInt());
+    }
+
+    @Test
+    void testGetSimilarProductsBulk_ReusesMaterializedLists() {
+        when(productOutPort.getProductSimilarIds(1)).thenReturn(Flux.just(3));
+        when(productOutPort.getProductDetail(3)).thenReturn(Mono.just(Product.builder().id("3").build()));
+
+        StepVerifier.create(productService.getSimilarProducts("1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(productService.getSimilarProducts(List.of("1")))
+                .assertNext(productsById -> assertThat(productsById.get("1")).extracting(Product::getId).containsExactly("3"))
+                .verifyComplete();
+
+        verify(productOutPort, times(1)).getProductSimilarIds(1);
+        verify(productOutPort, times(1)).getProductDetail(3);
+    }
+
+    @Test
+    void testGetSimilarProductsWithinBudget_CompleteWhenEveryDetailResolves() {
+        when(productOutPort.getProductSimilarIds(123)).thenReturn(Flux.just(1, 2));
+        when(productOutPort.getProductDetail(1)).thenReturn(Mono.just(Product.builder().id("1").build()));
+        when(productOutPort.getProductDetail(2)).thenReturn(Mono.just(Product.builder().id("2").build()));
+
+        Mono<SimilarProducts> result = productService.getSimilarProducts("123", Duration.ofMillis(500));
+
+        StepVerifier.create(result)
+                .assertNext(similarProducts -> {
+                    assertThat(similarProducts.partial()).isFalse();
+                    assertThat(similarProducts.products()).extracting(Product::getId).containsExactly("1", "2");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetSimilarProductsWithinBudget_PartialInOrderWhenBudgetRunsOut() {
+        AtomicBoolean slowDetailCancelled = new AtomicBoolean();
+        when(productOutPort.getProductSimilarIds(123)).thenReturn(Flux.just(1, 2, 3));
+        when(productOutPort.getProductDetail(1)).thenReturn(Mono.<Product>never().doOnCancel(() -> slowDetailCancelled.set(true)));
+        when(productOutPort.getProductDetail(2)).thenReturn(Mono.just(Product.builder().id("2").build()));
+        when(productOutPort.getProductDetail(3)).thenReturn(Mono.just(Product.builder().id("3").build()));
+
+        Mono<SimilarProducts> result = productService.getSimilarProducts("123", Duration.ofMillis(100));
+
+        StepVerifier.create(result)
+                .assertNext(similarProducts -> {
+                    assertThat(similarProducts.partial()).isTrue();
+                    assertThat(similarProducts.products()).extracting(Product::getId).containsExactly("2", "3");
+                })
+                .verifyComplete();
+        assertThat(slowDetailCancelled).isTrue();
+    }
+
+    @Test
+    void testGetSimilarProductsWithinBudget_CapsBudgetAtConfiguredMaximum() {
+        when(productOutPort.getProductSimilarIds(123)).thenReturn(Flux.never());
+
+        Mono<SimilarProducts> result = productService.getSimilarProducts("123", Duration.ofMinutes(5));
+
+        StepVerifier.create(result)
+                .assertNext(similarProducts -> {
+                    assertThat(similarProducts.partial()).isTrue();
+                    assertThat(similarProducts.products()).isEmpty();
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(3));
+    }
+}
@@ -0,0 +1,151 @@
+package com.between.products.application.service;
+
+import com.between.products.application.config.CacheProperties;
+import com.between.products.application.config.CaffeineCacheFactory;
+import com.between.products.domain.product.Product;
+import com.between.products.domain.product.ProductFixtures;
+import com.between.products.domain.product.ProductDetailChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.between.products.domain.product.ProductFixtures.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarProductsCacheTest {
+
+    private SimilarProductsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties(Map.of(
+                "similarProducts", CacheProperties.Spec.ofSize(Duration.ofMinutes(5), null, 100)));
+        cache = new SimilarProductsCache(new CaffeineCacheFactory(cacheProperties, new SimpleMeterRegistry()));
+        loads = new AtomicInteger();
+    }
+
+    private Function<Consumer<Integer>, Flux<Product>> loader(Integer... ids) {
+        return dependencies -> {
+            loads.incrementAndGet();
+            return Flux.fromArray(ids)
+                    .doOnNext(dependencies)
+                    .map(ProductFixtures::product);
+        };
+    }
+
+    @Test
+    void completeResultIsServedFromCache() {
+        // Act
+        StepVerifier.create(cache.get(1, loader(2, 3))).expectNextCount(2).verifyComplete();
+        StepVerifier.create(cache.get(1, loader(2, 3)))
+                .expectNext(product(2), product(3))
+                .verifyComplete();
+
+        // Assert
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void changedDetailInvalidatesEveryListContainingIt() {
+        // Arrange
+        StepVerifier.create(cache.get(1, loader(2, 3))).expectNextCount(2).verifyComplete();
+        StepVerifier.create(cache.get(4, loader(3, 5))).expectNextCount(2).verifyComplete();
+        StepVerifier.create(cache.get(6, loader(7))).expectNextCount(1).verifyComplete();
+
+        // Act
+        cache.onProductDetailChanged(new ProductDetailChangedEvent(3));
+
+        // Assert
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.indexedDependencies()).isEqualTo(1);
+        StepVerifier.create(cache.get(1, loader(2, 3))).expectNextCount(2).verifyComplete();
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void incompleteResultIsNotStored() {
+        // Arrange
+        Function<Consumer<Integer>, Flux<Product>> partialLoader = dependencies -> {
+            loads.incrementAndGet();
+            return Flux.just(2, 3)
+                    .doOnNext(dependencies)
+                    .flatMap(id -> id == 3 ? Mono.<Product>empty() : Mono.just(product(id)));
+        };
+
+        // Act
+        StepVerifier.create(cache.get(1, partialLoader)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get(1, partialLoader)).expectNextCount(1).verifyComplete();
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidationWhileBuildingPreventsStoringStaleList() {
+        // Arrange
+        Sinks.One<Product> slowDetail = Sinks.one();
+        Function<Consumer<Integer>, Flux<Product>> slowLoader = dependencies -> {
+            loads.incrementAndGet();
+            dependencies.accept(2);
+            return slowDetail.asMono().flux();
+        };
+
+        // Act
+        StepVerifier.create(cache.get(1, slowLoader))
+                .then(() -> cache.onProductDetailChanged(new ProductDetailChangedEvent(2)))
+                .then(() -> slowDetail.tryEmitValue(product(2)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Assert
+        assertThat(cache.size()).isZero();
+        assertThat(cache.indexedDependencies()).isZero();
+    }
+
+    @Test
+    void unrelatedInvalidationKeepsList() {
+        // Arrange
+        StepVerifier.create(cache.get(1, loader(2, 3))).expectNextCount(2).verifyComplete();
+
+        // Act
+        cache.onProductDetailChanged(new ProductDetailChangedEvent(99));
+
+        // Assert
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(List.of(loads.get())).containsExactly(1);
+    }
+
+    @Test
+    void getAllLoadsOnlySourcesThatAreNotMaterialized() {
+        // Arrange
+        StepVerifier.create(cache.get(1, loader(2, 3))).expectNextCount(2).verifyComplete();
+        List<List<Integer>> requested = new ArrayList<>();
+
+        // Act
+        Map<Integer, List<Product>> result = cache.getAll(List.of(1, 4), missing -> {
+            requested.add(missing);
+            return Mono.just(Map.of(4, new SimilarProductsCache.MaterializedProducts(
+                    List.of(product(5)), List.of(5))));
+        }).block();
+
+        // Assert
+        assertThat(requested).containsExactly(List.of(4));
+        assertThat(result).containsOnlyKeys(1, 4);
+        assertThat(result.get(1)).containsExactly(product(2), product(3));
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
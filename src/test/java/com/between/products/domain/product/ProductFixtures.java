@@ -0,0 +1,19 @@
+package com.between.products.domain.product;
+
+import java.math.BigDecimal;
+
+public final class ProductFixtures {
+
+    private ProductFixtures() {
+    }
+
+    /** A complete product named after its id. */
+    public static Product product(int id) {
+        return Product.builder()
+                .id(String.valueOf(id))
+                .name("Product " + id)
+                .price(BigDecimal.TEN)
+                .availability(true)
+                .build();
+    }
+}
@@ -95,4 +95,68 @@ class ProductTest {
         assertTrue(productString.contains("15.75"));
         assertTrue(productString.contains("true"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactFieldsRoundTrip() {
+        // Arrange
+        BigDecimal price = new BigDecimal("19.990");
+
+        // Act
+        Product product = Product.builder()
+                .id("1234")
+                .name("Product A")
+                .price(price)
+                .availability(false)
+                .build();
+        Product empty = Product.builder()
+                .id("1234")
+                .build();
+
+        // Assert
+        assertEquals(price, product.getPrice());
+        assertEquals(3, product.getPrice().scale());
+        assertFalse(product.getAvailability());
+        assertNull(empty.getPrice());
+        assertNull(empty.getAvailability());
+        assertEquals(0, empty.priceAsDouble());
+        assertNotEquals(product, empty);
+    }
+
+    @Test
+    void testPriceAsDoubleMatchesBigDecimal() {
+        // Arrange
+        String[] prices = {"0", "19.99", "0.1", "1234567.891", "-3.5", "1E+3", "9007199254740993", "12345678901234567.89"};
+
+        for (String value : prices) {
+            // Act
+            BigDecimal price = new BigDecimal(value);
+            Product product = Product.builder()
+                    .price(price)
+                    .build();
+
+            // Assert
+            assertEquals(price.doubleValue(), product.priceAsDouble(), value);
+        }
+    }
+
+    @Test
+    void testPricesOutsideCompactRangeRoundTrip() {
+        // Arrange
+        String[] prices = {"123456789012345678901234567890", "-9223372036854775809", "1E-200", "1.5E+300"};
+
+        for (String value : prices) {
+            // Act
+            BigDecimal price = new BigDecimal(value);
+            Product product = Product.builder()
+                    .price(price)
+                    .availability(true)
+                    .build();
+
+            // Assert
+            assertEquals(price, product.getPrice(), value);
+            assertEquals(price.doubleValue(), product.priceAsDouble(), value);
+            assertTrue(product.getAvailability());
+            assertEquals(product, Product.builder().price(new BigDecimal(value)).availability(true).build());
+        }
+    }
+}